@@ -0,0 +1,263 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Batch driver reads and parses many files with bounded concurrency.
+ * 
+ * Each file is read into a pooled {@link RandomAccessData rabu},
+ * which is {@link RandomAccessBuffer#clear() cleared} and reused by
+ * the following file so that buffer capacity is allocated once per
+ * worker rather than once per file.  A buffer grown beyond the
+ * retention limit is released rather than returned to the pool.
+ * 
+ * The count of files submitted and not complete is bounded, so a
+ * stream of millions of paths is consumed as workers become
+ * available.  A failure of one file is counted and does not stop the
+ * batch.
+ * 
+ * @see Report
+ */
+public class Batch
+    extends Object
+{
+    /**
+     * Per file parser.
+     */
+    public interface Parser {
+	/**
+	 * The content of the rabu is valid for the duration of this
+	 * call, after which its buffer is reused.
+	 * 
+	 * @param file Source
+	 * @param data Content of file, I/O pointer at zero
+	 * @return Data tree, or null
+	 */
+	public Component parse(Path file, RandomAccessData data)
+	    throws Exception;
+    }
+    /**
+     * Aggregate throughput and latency of a batch.
+     */
+    public final static class Report {
+	/**
+	 * Files parsed
+	 */
+	public final long files;
+	/**
+	 * Files failed
+	 */
+	public final long failed;
+	/**
+	 * Bytes read
+	 */
+	public final long bytes;
+	/**
+	 * Wall clock duration of batch
+	 */
+	public final long nanos;
+	/**
+	 * Per file read and parse duration
+	 */
+	public final Metrics.Histogram latency;
+	/**
+	 * First failure, or null
+	 */
+	public final Throwable failure;
+
+
+	Report(long files, long failed, long bytes, long nanos, Metrics.Histogram latency, Throwable failure){
+	    super();
+	    this.files = files;
+	    this.failed = failed;
+	    this.bytes = bytes;
+	    this.nanos = nanos;
+	    this.latency = latency;
+	    this.failure = failure;
+	}
+
+
+	public double filesPerSecond(){
+
+	    return (0L < this.nanos)?((this.files+this.failed)*1e9/this.nanos):(0.0);
+	}
+	public double megabytesPerSecond(){
+
+	    return (0L < this.nanos)?((this.bytes*1e9)/(this.nanos*1048576.0)):(0.0);
+	}
+	/**
+	 * Summary lines with prefix.
+	 */
+	public void println(String prefix, PrintStream out){
+
+	    out.printf("%s batch files: %d, failed: %d, bytes: %d, time: %d us.%n",prefix,
+		       this.files,this.failed,this.bytes,(this.nanos/1000L));
+	    out.printf("%s batch throughput files/s: %.1f, MB/s: %.2f.%n",prefix,
+		       this.filesPerSecond(),this.megabytesPerSecond());
+	    out.printf("%s batch latency p50: %d us, p99: %d us, p999: %d us.%n",prefix,
+		       (this.latency.percentile(0.5)/1000L),(this.latency.percentile(0.99)/1000L),
+		       (this.latency.percentile(0.999)/1000L));
+	    if (null != this.failure){
+
+		out.printf("%s batch failure: %s.%n",prefix,this.failure);
+	    }
+	}
+    }
+    /**
+     * Default buffer retention limit
+     */
+    public final static int RETAIN = 0x1000000;
+
+
+    public final Printer.Configuration configuration;
+
+    public final Endian endian;
+
+    public final int concurrency;
+
+    public final int retain;
+
+
+    public Batch(Printer.Configuration c, int concurrency){
+	this(c,Endian.BE,concurrency,RETAIN);
+    }
+    /**
+     * @param c Rabu configuration
+     * @param e Rabu word order
+     * @param concurrency Count of workers
+     * @param retain Largest buffer capacity returned to the pool
+     */
+    public Batch(Printer.Configuration c, Endian e, int concurrency, int retain){
+	super();
+	if (null != c && null != e && 0 < concurrency && 0 < retain){
+	    this.configuration = c;
+	    this.endian = e;
+	    this.concurrency = concurrency;
+	    this.retain = retain;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("concurrency: %d, retain: %d",concurrency,retain));
+	}
+    }
+
+
+    public Report run(Stream<Path> files, Parser parser)
+	throws InterruptedException
+    {
+	return this.run(files.iterator(),parser);
+    }
+    /**
+     * Parse each file, and return on completion of all.
+     */
+    public Report run(Iterator<Path> files, final Parser parser)
+	throws InterruptedException
+    {
+	final ArrayBlockingQueue<RandomAccessData> pool = new ArrayBlockingQueue<RandomAccessData>(this.concurrency);
+	final Semaphore pending = new Semaphore(this.concurrency<<1);
+	final LongAdder parsed = new LongAdder();
+	final LongAdder failed = new LongAdder();
+	final LongAdder bytes = new LongAdder();
+	final Metrics.Histogram latency = new Metrics.Histogram("batch");
+	final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	ExecutorService workers = Executors.newFixedThreadPool(this.concurrency,new ThreadFactory(){
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable r){
+		    Thread t = new Thread(r,"rabu-batch-"+count.incrementAndGet());
+		    t.setDaemon(true);
+		    return t;
+		}
+	    });
+	long time = System.nanoTime();
+	try {
+	    while (files.hasNext()){
+
+		final Path file = files.next();
+
+		pending.acquire();
+		try {
+		    workers.execute(new Runnable(){
+			    public void run(){
+				long start = System.nanoTime();
+				RandomAccessData data = pool.poll();
+				try {
+				    if (null == data){
+
+					data = new RandomAccessData(Batch.this.configuration,Batch.this.endian);
+				    }
+				    else {
+					data.clear();
+				    }
+				    bytes.add(data.read(file.toFile()));
+
+				    data.reset();
+
+				    parser.parse(file,data);
+
+				    parsed.increment();
+				}
+				catch (Throwable t){
+
+				    failed.increment();
+
+				    failure.compareAndSet(null,t);
+				}
+				finally {
+				    latency.record(System.nanoTime()-start);
+
+				    if (null != data && Batch.this.retain >= data.buffer.buffer.length){
+
+					pool.offer(data);
+				    }
+				    pending.release();
+				}
+			    }
+			});
+		}
+		catch (RuntimeException exc){
+
+		    pending.release();
+
+		    throw exc;
+		}
+	    }
+	    pending.acquire(this.concurrency<<1);
+	    pending.release(this.concurrency<<1);
+	}
+	finally {
+	    workers.shutdown();
+	}
+	time = (System.nanoTime()-time);
+
+	return new Report(parsed.sum(),failed.sum(),bytes.sum(),time,latency,failure.get());
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Bit field cursor over a region of a {@link RandomAccessBuffer
+ * rabu}.
+ * 
+ * Fields of one to sixty four bits are read in the bit order of the
+ * {@link Endian}: {@link Endian#BE BE} is most significant bit first
+ * (as JPEG and MPEG), and {@link Endian#LE LE} is least significant
+ * bit first (as DEFLATE).  Bits are consumed from a sixty four bit
+ * register, refilled by one word load from the buffer.
+ * 
+ * @see BitWriter
+ */
+public class BitReader
+    extends Object
+{
+    private final static VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.BIG_ENDIAN);
+
+    private final static VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+
+
+    public final RandomAccessBuffer source;
+
+    public final Endian order;
+    /**
+     * External region from (inclusive) to (exclusive)
+     */
+    public final int from, to;
+    /**
+     * Register bits, aligned to the first bit in order: high for BE,
+     * low for LE
+     */
+    private long register;
+    /**
+     * Count of register bits
+     */
+    private int count;
+    /**
+     * External offset of next load
+     */
+    private int next;
+
+
+    /**
+     * @param r Source buffer
+     * @param x External offset of region
+     * @param q Length of region
+     * @param order Bit order
+     */
+    public BitReader(RandomAccessBuffer r, int x, int q, Endian order){
+	super();
+	if (null != r && null != order && -1 < x && -1 < q){
+	    this.source = r;
+	    this.order = order;
+	    this.from = x;
+	    this.to = (x+q);
+	    this.next = x;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+    /**
+     * From I/O pointer, in the byte order of the argument.
+     */
+    public BitReader(RandomAccessData d){
+	this(d,d.offset(),d.available(),d.endian);
+    }
+
+
+    /**
+     * @return Bit offset from start of region
+     */
+    public long position(){
+
+	return (((long)(this.next-this.from) << 3)-this.count);
+    }
+    /**
+     * @return Count of bits remaining in region
+     */
+    public long available(){
+
+	return (((long)(this.to-this.from) << 3)-this.position());
+    }
+    /**
+     * @param bit Offset from start of region
+     */
+    public void seek(long bit){
+
+	if (-1 < bit && bit <= ((long)(this.to-this.from) << 3)){
+
+	    this.next = (this.from+(int)(bit >>> 3));
+	    this.register = 0L;
+	    this.count = 0;
+
+	    this.uint((int)(bit & 7));
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(bit));
+	}
+    }
+    /**
+     * Skip to byte boundary.
+     */
+    public void align(){
+
+	this.uint(this.count & 7);
+    }
+    /**
+     * @return One bit
+     */
+    public boolean bit(){
+
+	return (0L != this.uint(1));
+    }
+    /**
+     * @param n Field width from zero to sixty four bits
+     * @return Field value zero extended
+     * @exception IllegalArgumentException Field width or region
+     * exceeded
+     */
+    public long uint(int n){
+
+	if (n <= this.count && -1 < n){
+
+	    if (0 == n){
+		return 0L;
+	    }
+	    else {
+		long v;
+		switch(this.order){
+		case BE:
+		    v = (this.register >>> (64-n));
+		    this.register = (64 == n)?(0L):(this.register << n);
+		    break;
+		case LE:
+		    v = (64 == n)?(this.register):(this.register & ((1L << n)-1L));
+		    this.register = (64 == n)?(0L):(this.register >>> n);
+		    break;
+		default:
+		    throw new InternalError(this.order.name());
+		}
+		this.count -= n;
+		return v;
+	    }
+	}
+	else if (64 >= n && 0 < n){
+
+	    int k = (n-this.count);
+	    int q = Math.min(8,(this.to-this.next));
+
+	    if ((q << 3) < k){
+
+		throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.position(),n));
+	    }
+	    long w = this.load(q);
+
+	    this.next += q;
+
+	    long v;
+	    switch(this.order){
+	    case BE:
+		{
+		    long lo = (w >>> (64-k));
+		    v = (64 == k)?(lo):(((0 == this.count)?(0L):(this.register >>> (64-this.count)) << k)|lo);
+		    this.register = (64 == k)?(0L):(w << k);
+		}
+		break;
+	    case LE:
+		{
+		    long hi = (64 == k)?(w):(w & ((1L << k)-1L));
+		    v = (this.register|(hi << this.count));
+		    this.register = (64 == k)?(0L):(w >>> k);
+		}
+		break;
+	    default:
+		throw new InternalError(this.order.name());
+	    }
+	    this.count = ((q << 3)-k);
+	    return v;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.position(),n));
+	}
+    }
+    /**
+     * @param n Field width from one to sixty four bits
+     * @return Field value sign extended from its most significant
+     * bit
+     */
+    public long sint(int n){
+
+	long v = this.uint(n);
+
+	return (0 < n)?((v << (64-n)) >> (64-n)):(0L);
+    }
+    /**
+     * Load one word, or the remainder of the region, aligned to the
+     * first bit in order.
+     */
+    private long load(int q){
+
+	RandomAccessBuffer r = this.source;
+
+	if (8 == q){
+
+	    int i = r.buffer.direct(r.window,r.state,this.next,8);
+	    if (-1 < i){
+		switch(this.order){
+		case BE:
+		    return (long)LONG_BE.get(r.buffer.buffer,i);
+		case LE:
+		    return (long)LONG_LE.get(r.buffer.buffer,i);
+		default:
+		    throw new InternalError(this.order.name());
+		}
+	    }
+	}
+	long w = 0L;
+	for (int c = 0; c < q; c++){
+
+	    long v = r.get(this.next+c);
+
+	    switch(this.order){
+	    case BE:
+		w |= (v << (56-(c << 3)));
+		break;
+	    case LE:
+		w |= (v << (c << 3));
+		break;
+	    default:
+		throw new InternalError(this.order.name());
+	    }
+	}
+	return w;
+    }
+}
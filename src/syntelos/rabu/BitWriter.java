@@ -0,0 +1,238 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Bit field writer over a region of a {@link RandomAccessBuffer
+ * rabu}, in place and without growth.
+ * 
+ * Fields of one to sixty four bits are written in the bit order of
+ * the {@link Endian}, as for {@link BitReader}.  Bits accumulate in a
+ * sixty four bit register, stored by one word write as it fills.  A
+ * {@link #flush() flush} stores the register, merging a partial final
+ * byte with the bits following it in the buffer.
+ * 
+ * @see BitReader
+ */
+public class BitWriter
+    extends Object
+{
+
+    public final RandomAccessBuffer target;
+
+    public final Endian order;
+    /**
+     * External region from (inclusive) to (exclusive)
+     */
+    public final int from, to;
+    /**
+     * Register bits, aligned to the first bit in order: high for BE,
+     * low for LE
+     */
+    private long register;
+    /**
+     * Count of register bits
+     */
+    private int count;
+    /**
+     * External offset of next store
+     */
+    private int next;
+
+    private final byte[] word = new byte[8];
+
+
+    /**
+     * @param r Target buffer
+     * @param x External offset of region
+     * @param q Length of region
+     * @param order Bit order
+     */
+    public BitWriter(RandomAccessBuffer r, int x, int q, Endian order){
+	super();
+	if (null != r && null != order && -1 < x && -1 < q){
+	    this.target = r;
+	    this.order = order;
+	    this.from = x;
+	    this.to = (x+q);
+	    this.next = x;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+    /**
+     * From I/O pointer, in the byte order of the argument.
+     */
+    public BitWriter(RandomAccessData d){
+	this(d,d.offset(),d.available(),d.endian);
+    }
+
+
+    /**
+     * @return Bit offset from start of region
+     */
+    public long position(){
+
+	return (((long)(this.next-this.from) << 3)+this.count);
+    }
+    /**
+     * Write zero bits to byte boundary.
+     */
+    public void align(){
+
+	this.uint(0L,((8-(this.count & 7)) & 7));
+    }
+    public void bit(boolean v){
+
+	this.uint((v)?(1L):(0L),1);
+    }
+    /**
+     * @param v Field value, of which the low order bits are written
+     * @param n Field width from zero to sixty four bits
+     * @exception IllegalArgumentException Field width or region
+     * exceeded
+     */
+    public void uint(long v, int n){
+
+	if (0 < n && 64 >= n){
+
+	    if ((this.position()+n) > ((long)(this.to-this.from) << 3)){
+
+		throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.position(),n));
+	    }
+	    if (64 > n){
+		v &= ((1L << n)-1L);
+	    }
+
+	    int k = (64-this.count);
+	    if (n < k){
+		switch(this.order){
+		case BE:
+		    this.register |= (v << (k-n));
+		    break;
+		case LE:
+		    this.register |= (v << this.count);
+		    break;
+		default:
+		    throw new InternalError(this.order.name());
+		}
+		this.count += n;
+	    }
+	    else {
+		int rem = (n-k);
+		switch(this.order){
+		case BE:
+		    this.register |= (v >>> rem);
+		    this.store();
+		    this.register = (0 == rem)?(0L):(v << (64-rem));
+		    break;
+		case LE:
+		    this.register |= (v << this.count);
+		    this.store();
+		    this.register = (0 == rem)?(0L):(v >>> k);
+		    break;
+		default:
+		    throw new InternalError(this.order.name());
+		}
+		this.count = rem;
+	    }
+	}
+	else if (0 != n){
+
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.position(),n));
+	}
+    }
+    /**
+     * Same as {@link #uint(long,int)}, as the low order bits of a
+     * two's complement value are its field encoding.
+     */
+    public void sint(long v, int n){
+
+	this.uint(v,n);
+    }
+    /**
+     * Store register bits.  A partial final byte is merged with the
+     * buffer, and remains in the register for subsequent fields.
+     */
+    public void flush(){
+
+	RandomAccessBuffer r = this.target;
+
+	int whole = (this.count >>> 3);
+	int part = (this.count & 7);
+
+	for (int c = 0; c < whole; c++){
+
+	    int v;
+	    switch(this.order){
+	    case BE:
+		v = (int)(this.register >>> 56);
+		this.register <<= 8;
+		break;
+	    case LE:
+		v = (int)(this.register & 0xFF);
+		this.register >>>= 8;
+		break;
+	    default:
+		throw new InternalError(this.order.name());
+	    }
+	    if (!r.set(this.next++,v)){
+
+		throw new IllegalArgumentException(String.valueOf(this.next-1));
+	    }
+	}
+	this.count = part;
+
+	if (0 < part){
+
+	    int m, v;
+	    switch(this.order){
+	    case BE:
+		m = ((0xFF << (8-part)) & 0xFF);
+		v = (int)(this.register >>> 56);
+		break;
+	    case LE:
+		m = ((1 << part)-1);
+		v = (int)(this.register & 0xFF);
+		break;
+	    default:
+		throw new InternalError(this.order.name());
+	    }
+	    if (!r.set(this.next,((r.get(this.next) & ~m)|(v & m)))){
+
+		throw new IllegalArgumentException(String.valueOf(this.next));
+	    }
+	}
+    }
+    /**
+     * Store full register by one word write.
+     */
+    private void store(){
+
+	this.order.sint64(this.word,0,this.register);
+
+	if (this.target.set(this.next,this.word,0,8)){
+
+	    this.next += 8;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.next,8));
+	}
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+
+/**
+ * Data tree leaf over a window of a shared buffer.
+ * 
+ * A block is parsed from its source window, and retains the window
+ * for output.  A clean block is copied byte for byte from its source,
+ * while a dirty block is encoded by its subclass.  Editing a block
+ * should {@link #resize(int) resize} or {@link #touch() touch} it, so
+ * that every enclosing header is encoded with a corrected length and
+ * every clean sibling is copied.  The cost of writing the tree is
+ * then proportional to the size of the edits, rather than the size of
+ * the file, plus a copy of the clean regions.  A block is clean once
+ * written, and encoded again until touched.
+ * 
+ * The location of a block is its serialized layout.  The layout is
+ * revised to the output position of each block as the tree is
+ * written.
+ * 
+ * @see Branch
+ */
+public abstract class Block
+    extends Object
+    implements Component
+{
+
+    protected final Container parent;
+    /**
+     * Source encoding, or null for a new block.
+     */
+    protected RandomAccessBuffer source;
+
+    protected Location.Offset location = Location.Offset.FILE;
+
+    protected long offset;
+
+    protected int length;
+
+    protected boolean dirty;
+
+
+    /**
+     * New block to be encoded.
+     */
+    protected Block(Container parent){
+	super();
+	this.parent = parent;
+	this.dirty = true;
+    }
+    /**
+     * Parsed block to be copied until touched.
+     * 
+     * @param source Window over the source encoding of this block.
+     */
+    protected Block(Container parent, RandomAccessBuffer source){
+	super();
+	if (null != source){
+	    this.parent = parent;
+	    this.source = source;
+	    this.offset = source.window.delta;
+	    this.length = source.available();
+	    this.dirty = false;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public final Container parent(){
+
+	return this.parent;
+    }
+    public final boolean dirty(){
+
+	return this.dirty;
+    }
+    public final void touch(){
+
+	this.dirty = true;
+
+	this.invalidate();
+
+	Container c = this.parent;
+
+	while (null != c){
+
+	    if (c instanceof Block){
+
+		Block b = (Block)c;
+		/*
+		 * A dirty ancestor holding no derived length has
+		 * none above it
+		 */
+		if (!b.invalidate() && b.dirty){
+
+		    return;
+		}
+		else {
+		    b.dirty = true;
+
+		    c = c.parent();
+		}
+	    }
+	    else {
+		if (!c.dirty()){
+
+		    c.touch();
+		}
+		return;
+	    }
+	}
+    }
+    /**
+     * Drop any length derived from the content of this block, as
+     * when touched.
+     * 
+     * @return A derived length was held
+     */
+    protected boolean invalidate(){
+
+	return false;
+    }
+    /**
+     * Revise the encoded length of an edited leaf.
+     */
+    public void resize(int length){
+
+	if (-1 < length){
+
+	    this.length = length;
+
+	    this.touch();
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(length));
+	}
+    }
+    public Location.Offset location(){
+
+	return this.location;
+    }
+    public long offset(){
+
+	return this.offset;
+    }
+    /**
+     * Encoded length, which is the source length of a clean block.
+     */
+    public int length(){
+
+	return this.length;
+    }
+    public int compareTo(Location that){
+
+	return Long.compare(this.offset,that.offset());
+    }
+    /**
+     * Revise the location of this block to the argument output
+     * position.  Called in advance of encoding.
+     */
+    protected void layout(long offset){
+
+	this.offset = offset;
+    }
+    /**
+     * Copy a clean block from its source, or encode a dirty block.
+     * An encoded block is clean, having no source, and is encoded
+     * again until touched.
+     */
+    public void write(LocationOutputStream out)
+	throws IOException
+    {
+	Events.ComponentWrite event = new Events.ComponentWrite();
+	event.begin();
+
+	boolean dirty = this.dirty;
+
+	this.layout(out.offset());
+
+	if (this.dirty || null == this.source){
+
+	    this.encode(out);
+	    /*
+	     * The source no longer describes the output
+	     */
+	    this.source = null;
+	    this.dirty = false;
+	}
+	else if (0 < this.length && this.length != this.source.copy(0,this.length,out)){
+
+	    throw new IOException(String.format("source copy offset %d, length %d",this.offset,this.length));
+	}
+
+	if (event.isEnabled()){
+
+	    event.location = this.offset;
+	    event.length = (out.offset()-this.offset);
+	    event.depth = Events.depth(this);
+	    event.dirty = dirty;
+	    event.commit();
+	}
+    }
+    /**
+     * Write the encoding of a dirty block, having {@link #length()}
+     * bytes.
+     */
+    protected abstract void encode(LocationOutputStream out)
+	throws IOException;
+
+}
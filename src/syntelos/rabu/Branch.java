@@ -0,0 +1,185 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data tree branch over a window of a shared buffer.
+ * 
+ * A branch encodes a header for its content, being the sequence of
+ * its children.  A dirty branch encodes its header with the length of
+ * its content as revised by its children, and writes each child.  A
+ * clean branch is copied from its source, including its children.
+ * The length of content is derived once, and held until the branch
+ * or one of its descendants is touched.
+ * 
+ * @see Block
+ */
+public abstract class Branch
+    extends Block
+    implements Container
+{
+
+    protected final List<Component> children = new ArrayList<Component>();
+    /**
+     * Derived length of content, or negative
+     */
+    private int extent = -1;
+
+
+    protected Branch(Container parent){
+	super(parent);
+    }
+    protected Branch(Container parent, RandomAccessBuffer source){
+	super(parent,source);
+    }
+
+
+    public final int count(){
+
+	return this.children.size();
+    }
+    public final Component child(int x){
+
+	return this.children.get(x);
+    }
+    /**
+     * Parser appends child without changing the state of this
+     * branch.
+     */
+    protected void add(Component c){
+
+	this.children.add(c);
+
+	this.extent = -1;
+    }
+    /**
+     * Editor inserts child and marks this branch dirty.
+     */
+    public void insert(int x, Component c){
+
+	this.children.add(x,c);
+
+	this.touch();
+    }
+    /**
+     * Editor removes child and marks this branch dirty.
+     */
+    public Component remove(int x){
+
+	Component c = this.children.remove(x);
+
+	this.touch();
+
+	return c;
+    }
+    /**
+     * Sum of child lengths.
+     */
+    public int content(){
+
+	int q = this.extent;
+	if (0 > q){
+
+	    q = 0;
+
+	    for (Component c : this.children){
+
+		q += c.length();
+	    }
+	    this.extent = q;
+	}
+	return q;
+    }
+    protected boolean invalidate(){
+
+	if (-1 < this.extent){
+
+	    this.extent = -1;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Encoded length of a dirty branch is derived from its children.
+     */
+    public int length(){
+
+	if (this.dirty){
+
+	    int c = this.content();
+
+	    return (this.header(c)+c);
+	}
+	else {
+	    return this.length;
+	}
+    }
+    /**
+     * Locate children following the header.
+     */
+    protected void layout(long offset){
+
+	super.layout(offset);
+
+	long x = (offset+this.header(this.content()));
+
+	for (Component c : this.children){
+
+	    if (c instanceof Block){
+
+		((Block)c).layout(x);
+	    }
+	    x += c.length();
+	}
+    }
+    /**
+     * Encode header and write children.
+     */
+    protected void encode(LocationOutputStream out)
+	throws IOException
+    {
+	int content = this.content();
+
+	this.header(content,out);
+
+	for (Component c : this.children){
+
+	    c.write(out);
+	}
+	this.length = (this.header(content)+content);
+    }
+    /**
+     * @param content Length of content following header
+     * @return Length of header
+     */
+    protected abstract int header(int content);
+    /**
+     * Write a header having {@link #header(int)} bytes.
+     * 
+     * @param content Length of content following header
+     */
+    protected abstract void header(int content, LocationOutputStream out)
+	throws IOException;
+}
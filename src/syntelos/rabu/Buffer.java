@@ -21,6 +21,11 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Checksum;
 
 /**
  * This interface employs an externalized coordinate space to
@@ -77,11 +82,50 @@ public class Buffer
 
 	    this.growth = q;
 	}
+	this.expand(this.buffer.length + q);
+    }
+    /**
+     * Amortized growth to a capacity of at least the argument, by
+     * the greater of the rate of growth and half of the current
+     * capacity.
+     */
+    protected void reserve(int capacity){
+
+	int cap = this.buffer.length;
+
+	if (capacity > cap){
+
+	    long z = ((long)cap + Math.max(this.growth,(cap >>> 1)));
+
+	    this.expand((int)Math.min(Integer.MAX_VALUE,Math.max(z,Math.max(capacity,ceil(capacity)))));
+	}
+    }
+    /**
+     * Reallocate to capacity, copying content.
+     */
+    private void expand(int capacity){
+
+	long time = (Metrics.ENABLED)?(System.nanoTime()):(0L);
 
-	byte[] grow = new byte[this.buffer.length + q];
+	Events.Grow event = new Events.Grow();
+	event.begin();
+
+	byte[] grow = new byte[capacity];
 
 	System.arraycopy(this.buffer,0,grow,0,this.buffer.length);
 
+	if (Metrics.ENABLED){
+
+	    Metrics.grow(this.buffer.length,(System.nanoTime()-time));
+	}
+	if (event.isEnabled()){
+
+	    event.previous = this.buffer.length;
+	    event.capacity = grow.length;
+	    event.copied = this.buffer.length;
+	    event.commit();
+	}
+
 	this.buffer = grow;
     }
     public int internal(Window w, State s){
@@ -111,23 +155,29 @@ public class Buffer
     }
     public boolean bounds(Window w, int i){
 
-	if (-1 < i){
+	if (-1 < i && i < this.buffer.length && w.bounds(i)){
 
-	    return (i < this.buffer.length && w.bounds(i));
+	    return true;
 	}
 	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
 	    return false;
 	}
     }
     public boolean bounds(Window w, int i, int q){
-	/*
-	 * [TODO]    Constrain WRITE by WINDOW
-	 */
-	if (-1 < i && 0 < q){
 
-	    return ((i+q) <= this.buffer.length);
+	if (-1 < i && 0 < q && (i+q) <= this.buffer.length && w.bounds(i,q)){
+
+	    return true;
 	}
 	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
 	    return false;
 	}
     }
@@ -143,6 +193,11 @@ public class Buffer
 
 	    s.external += 1;
 
+	    if (Metrics.ENABLED){
+
+		Metrics.read(s,1);
+	    }
+
 	    return (this.buffer[i] & 0xFF);
 	}
 	else {
@@ -158,6 +213,11 @@ public class Buffer
 
 	    s.external += q;
 
+	    if (Metrics.ENABLED){
+
+		Metrics.read(s,q);
+	    }
+
 	    System.arraycopy(this.buffer,i,b,o,q);
 
 	    return q;
@@ -175,12 +235,39 @@ public class Buffer
     }
     public boolean print(Window w, State s, PrintStream out){
 
+	return this.print(w,s,this,out);
+    }
+    /**
+     * Print with the formatting and offset of the argument printer.
+     */
+    public boolean print(Window w, State s, Printer p, PrintStream out){
+
 	int i = this.internal(w,s);
 	int q = this.available(w,s);
 
 	if (this.bounds(w,i,q)){
 
-	    super.print(this.buffer,i,q,out);
+	    p.print(this.buffer,i,q,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Parallel print with the formatting and offset of the argument
+     * printer.
+     */
+    public boolean print(Window w, State s, Printer p, WritableByteChannel out)
+	throws IOException
+    {
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    p.print(this.buffer,i,q,out);
 
 	    return true;
 	}
@@ -192,6 +279,25 @@ public class Buffer
 
 	return this.seek(w,s,0);
     }
+    /**
+     * Discard content for reuse of capacity, with effect to {@link
+     * State}.  Only a rabu without window aperture clears its
+     * buffer.
+     */
+    public boolean clear(Window w, State s){
+
+	if (0 == w.delta && 0 == w.length){
+
+	    this.length = 0;
+
+	    s.external = 0;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
     /**
      * Change {@link State}
      */
@@ -212,63 +318,85 @@ public class Buffer
 	}
     }
     /**
-     * Write to buffer with effect to {@link State}
+     * Write to buffer with effect to {@link State}.  An overwrite
+     * within content and window has one bounds check, and no effect
+     * to length or capacity.  Otherwise the write is an {@link
+     * #append(Window,int,int) append}.
      */
     public boolean write(Window w, State s, int b){
-	/*
-	 * [TODO]    Constrain WRITE by WINDOW
-	 */
-	int i = this.internal(w,s);
-
-	if (0 <= i){
 
-	    if ((i+1) >= this.length){
-
-		if ((i+1) > this.buffer.length){
+	int i = this.internal(w,s);
 
-		    this.grow(-1);
-		}
+	if ((-1 < i && i < this.length && w.bounds(i)) || this.append(w,i,1)){
 
-		this.length += 1;
-	    }
-	    /*
-	     */
-	    if (this.bounds(w,i)){
+	    this.buffer[i] = (byte)(b & 0xFF);
 
-		this.buffer[i] = (byte)(b & 0xFF);
+	    s.external += 1;
 
-		s.external += 1;
+	    if (Metrics.ENABLED){
 
-		return true;
+		Metrics.write(s,1);
 	    }
+	    return true;
+	}
+	else {
+	    return false;
 	}
-	return false;
     }
     public boolean write(Window w, State s, byte[] b, int o, int l){
-	/*
-	 * [TODO]    Constrain WRITE by WINDOW
-	 */
+
 	int i = w.internal(s);
 
-	int q = (i+l);
+	if ((-1 < i && 0 <= l && l <= (this.length-i) && w.bounds(i,l)) || this.append(w,i,l)){
+
+	    System.arraycopy(b,o,this.buffer,i,l);
+
+	    s.external += l;
 
-	if (q > this.buffer.length){
+	    if (Metrics.ENABLED){
 
-	    this.grow(ceil(q));
+		Metrics.write(s,l);
+	    }
+	    return true;
 	}
-	/*
-	 */
-	if (this.bounds(w,i,l)){
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Admit a write of internal region {@code [i,i+q)} past the end
+     * of content, or past the window ceiling by its {@link
+     * Window.Policy policy}.  Capacity grows by {@link #reserve(int)
+     * reserve}, a gap following content is zero filled, and the
+     * length of content extends to the end of the region.
+     * 
+     * @return Region is writable
+     */
+    protected boolean append(Window w, int i, int q){
 
-	    System.arraycopy(b,o,this.buffer,i,l);
+	if (-1 < i && -1 < q && q <= (Integer.MAX_VALUE-i) && w.write(i,q)){
 
-	    s.external += l;
+	    int z = (i+q);
 
-	    this.length += l;
+	    if (z > this.buffer.length){
 
+		this.reserve(z);
+	    }
+	    if (i > this.length){
+
+		Arrays.fill(this.buffer,this.length,i,(byte)0);
+	    }
+	    if (z > this.length){
+
+		this.length = z;
+	    }
 	    return true;
 	}
 	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
 	    return false;
 	}
     }
@@ -325,6 +453,41 @@ public class Buffer
 	    return null;
 	}
     }
+    /**
+     * No effect to {@link State}
+     */
+    public int copy(Window w, State s, int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    out.write(this.buffer,i,q);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    /**
+     * Update checksum over region, no effect to {@link State}.
+     */
+    public boolean update(Window w, State s, int x, int q, Checksum c){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    c.update(this.buffer,i,q);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
     public int get(Window w, State s, int x){
 
 	int i = this.internal(w,s,x);
@@ -352,6 +515,58 @@ public class Buffer
 	    throw new IllegalArgumentException(String.valueOf(x));
 	}
     }
+    /**
+     * Random access constrainted by window without growth.
+     */
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,l)){
+
+	    System.arraycopy(b,o,this.buffer,i,l);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,l));
+	}
+    }
+    /**
+     * Direct access to {@link #buffer} permits a single bounds check
+     * over a region, for reading.  Writers employ {@link
+     * #writable(Window,State,int,int) writable}.
+     * 
+     * @return Internal index of the contiguous region of {@link
+     * #buffer} at external offset, or negative one for out of bounds
+     * or a buffer without contiguous representation.
+     */
+    public int direct(Window w, State s, int x, int q){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    return i;
+	}
+	else {
+	    return -1;
+	}
+    }
+    /**
+     * Direct access for writing into {@link #buffer}, as {@link
+     * #direct(Window,State,int,int) direct} for a buffer permitting
+     * writes.
+     * 
+     * @return Internal index of the contiguous region of {@link
+     * #buffer} at external offset, or negative one for out of bounds,
+     * a buffer without contiguous representation, or a read only
+     * buffer.
+     */
+    public int writable(Window w, State s, int x, int q){
+
+	return this.direct(w,s,x,q);
+    }
     public int indexOf(Window w, State s, int c){
 
 	int x = s.external;
@@ -370,19 +585,59 @@ public class Buffer
 	}
 	return -1;
     }
+    /**
+     * Octets as characters, the ISO-8859-1 (Latin-1) decoding.
+     */
     public String substring(Window w, State s, int o, int l){
 
+	return this.substring(w,s,o,l,StandardCharsets.ISO_8859_1);
+    }
+    /**
+     * Decode from buffer without an intermediate copy.  The decoders
+     * for US-ASCII, ISO-8859-1, and UTF-8 copy ASCII content directly
+     * into a compact string.
+     */
+    public String substring(Window w, State s, int o, int l, Charset cs){
+
 	int i = this.internal(w,s,o);
 	int q = Math.min(l,this.available(w,s));
 
-	if (0 < q && i < this.length){
+	if (0 < q && -1 < i && q <= (this.length-i) && w.bounds(i,q)){
 
-	    return new String(this.buffer,0,i,q);
+	    return new String(this.buffer,i,q,cs);
 	}
 	else {
 	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
 	}
     }
+    /**
+     * Decode from buffer via cache.
+     */
+    public String substring(Window w, State s, int o, int l, Intern cache){
+
+	int i = this.internal(w,s,o);
+	int q = Math.min(l,this.available(w,s));
+
+	if (0 < q && -1 < i && q <= (this.length-i) && w.bounds(i,q)){
+
+	    return cache.intern(this.buffer,i,q);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    /**
+     * Compare content at external offset to pattern, without
+     * allocation.
+     * 
+     * @return Content equals pattern
+     */
+    public boolean equals(Window w, State s, int o, byte[] p){
+
+	int i = this.direct(w,s,o,p.length);
+
+	return (-1 < i && Arrays.equals(this.buffer,i,(i+p.length),p,0,p.length));
+    }
     /**
      * Optimistic rate of growth filter
      */
@@ -0,0 +1,91 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+
+/**
+ * Location output into a buffer at its I/O pointer counts its offset
+ * from the I/O pointer at construction.  Previous output is patched
+ * in place.
+ * 
+ * @see DeflateOutput
+ */
+public class BufferOutput
+    extends Object
+    implements PatchOutputStream
+{
+
+    protected final RandomAccessBuffer out;
+
+    protected final int origin;
+
+    protected long offset;
+
+
+    public BufferOutput(RandomAccessBuffer out){
+	super();
+	if (null != out){
+	    this.out = out;
+	    this.origin = out.offset();
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public long offset(){
+
+	return this.offset;
+    }
+    public void write(int b) throws IOException {
+
+	this.write(new byte[]{(byte)b},0,1);
+    }
+    public void write(byte b[], int o, int l) throws IOException {
+
+	if (this.out.write(b,o,l)){
+
+	    this.offset += l;
+	}
+	else {
+	    throw new IOException(String.format("offset: %d, length: %d",this.offset,l));
+	}
+    }
+    public void patch(long offset, byte b[], int o, int l) throws IOException {
+
+	if (-1 < offset && (offset+l) <= this.offset){
+
+	    if (!this.out.set((int)(this.origin+offset),b,o,l)){
+
+		throw new IOException(String.format("offset: %d, length: %d",offset,l));
+	    }
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",offset,l));
+	}
+    }
+    public void flush() throws IOException {
+    }
+    /**
+     * The buffer remains open.
+     */
+    public void close() throws IOException {
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Location output over a seekable channel, as a file, counts its
+ * offset from the channel position at construction.
+ * 
+ * @see DeflateOutput
+ */
+public class ChannelOutput
+    extends Object
+    implements PatchOutputStream
+{
+
+    protected final SeekableByteChannel out;
+
+    protected final long origin;
+
+    protected long offset;
+
+    private final byte[] one = new byte[1];
+
+
+    public ChannelOutput(SeekableByteChannel out)
+	throws IOException
+    {
+	super();
+	if (null != out){
+	    this.out = out;
+	    this.origin = out.position();
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public long offset(){
+
+	return this.offset;
+    }
+    public void write(int b) throws IOException {
+
+	this.one[0] = (byte)b;
+
+	this.write(this.one,0,1);
+    }
+    public void write(byte b[], int o, int l) throws IOException {
+
+	ByteBuffer w = ByteBuffer.wrap(b,o,l);
+	while (w.hasRemaining()){
+
+	    this.out.write(w);
+	}
+	this.offset += l;
+    }
+    public void patch(long offset, byte b[], int o, int l) throws IOException {
+
+	if (-1 < offset && (offset+l) <= this.offset){
+
+	    long p = this.out.position();
+	    try {
+		this.out.position(this.origin+offset);
+
+		ByteBuffer w = ByteBuffer.wrap(b,o,l);
+		while (w.hasRemaining()){
+
+		    this.out.write(w);
+		}
+	    }
+	    finally {
+		this.out.position(p);
+	    }
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",offset,l));
+	}
+    }
+    public void flush() throws IOException {
+    }
+    public void close() throws IOException {
+
+	this.out.close();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.util.zip.Checksum;
+
+/**
+ * Location output updating a checksum with each octet written, for
+ * a checksum over a block that is computed as the block is written.
+ * 
+ * @see Hash
+ */
+public class ChecksumOutput
+    extends Object
+    implements LocationOutputStream
+{
+
+    protected final LocationOutputStream out;
+
+    public final Checksum checksum;
+
+
+    public ChecksumOutput(LocationOutputStream out, Checksum checksum){
+	super();
+	if (null != out && null != checksum){
+	    this.out = out;
+	    this.checksum = checksum;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public long offset(){
+
+	return this.out.offset();
+    }
+    public void write(int b) throws IOException {
+
+	this.out.write(b);
+
+	this.checksum.update(b);
+    }
+    public void write(byte b[], int o, int l) throws IOException {
+
+	this.out.write(b,o,l);
+
+	this.checksum.update(b,o,l);
+    }
+    public void flush() throws IOException {
+
+	this.out.flush();
+    }
+    /**
+     * Close the decorated output.
+     */
+    public void close() throws IOException {
+
+	this.out.close();
+    }
+}
@@ -0,0 +1,837 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Tag, length, value block of a chunked format.
+ * 
+ * A {@link Format} describes the chunk header of a family of file
+ * formats (IFF, RIFF, PNG and similar), and the tags of chunks that
+ * contain chunks.  The {@link #parse(Format,RandomAccessData) parse}
+ * of a buffer is a recursive descent over chunk headers producing
+ * chunks as windows over the shared {@link Buffer}.  Chunk content is
+ * never copied, so the cost of parsing is proportional to the number
+ * of chunks rather than the size of the buffer.
+ * 
+ * Chunks are {@link Branch branches} for writing: a clean chunk is
+ * copied from its source window, and a dirty chunk is encoded with a
+ * revised length.
+ */
+public class Chunk
+    extends Branch
+{
+    /**
+     * Chunk header description.
+     */
+    public static class Format {
+	/**
+	 * Electronic Arts Interchange File Format: BE, four byte tag
+	 * and length, even alignment, with a four byte form type in
+	 * FORM, LIST, and CAT containers.
+	 */
+	public final static Format IFF = new Format(Endian.BE,4,4,false,false,2,0,4,
+						    Chunk.tag("FORM"),Chunk.tag("LIST"),Chunk.tag("CAT "));
+	/**
+	 * Microsoft Resource Interchange File Format: the little
+	 * endian form of IFF.
+	 */
+	public final static Format RIFF = new Format(Endian.LE,4,4,false,false,2,0,4,
+						     Chunk.tag("RIFF"),Chunk.tag("LIST"));
+	/**
+	 * Portable Network Graphics, following the eight byte file
+	 * signature: BE four byte length, then tag, with a four byte
+	 * CRC trailer over tag and content.
+	 */
+	public final static Format PNG = new Format(Endian.BE,4,4,true,false,1,4,0){
+		public Checksum checksum(){
+		    return new CRC32();
+		}
+	    };
+
+	/**
+	 * Word order of length field.
+	 */
+	public final Endian endian;
+	/**
+	 * Width of tag field: 1, 2, 4, or 8.
+	 */
+	public final int tag;
+	/**
+	 * Width of length field: 1, 2, 4, or 8.
+	 */
+	public final int length;
+	/**
+	 * Length field precedes tag field.
+	 */
+	public final boolean lengthFirst;
+	/**
+	 * Length field value includes the header.
+	 */
+	public final boolean inclusive;
+	/**
+	 * Chunk alignment: pad bytes follow a chunk to a multiple of
+	 * this value.
+	 */
+	public final int align;
+	/**
+	 * Bytes following content, not counted in the length field.
+	 */
+	public final int trailer;
+	/**
+	 * Bytes preceding the children of a container, counted in the
+	 * length field.
+	 */
+	public final int prefix;
+	/**
+	 * Tags of chunks containing chunks.
+	 */
+	private final long[] containers;
+
+
+	public Format(Endian endian, int tag, int length, boolean lengthFirst, boolean inclusive,
+		      int align, int trailer, int prefix, long... containers)
+	{
+	    super();
+	    if (null != endian && width(tag) && width(length) &&
+		0 < align && -1 < trailer && -1 < prefix)
+	    {
+		this.endian = endian;
+		this.tag = tag;
+		this.length = length;
+		this.lengthFirst = lengthFirst;
+		this.inclusive = inclusive;
+		this.align = align;
+		this.trailer = trailer;
+		this.prefix = prefix;
+		this.containers = containers.clone();
+	    }
+	    else {
+		throw new IllegalArgumentException();
+	    }
+	}
+
+
+	/**
+	 * @return Size of chunk header
+	 */
+	public final int header(){
+
+	    return (this.tag+this.length);
+	}
+	public boolean container(long tag){
+
+	    for (long c : this.containers){
+
+		if (c == tag){
+
+		    return true;
+		}
+	    }
+	    return false;
+	}
+	/**
+	 * @param size Header, content, and trailer
+	 * @return Count of pad bytes following size
+	 */
+	public final int pad(int size){
+
+	    int r = (size % this.align);
+
+	    return (0 != r)?(this.align-r):(0);
+	}
+	/**
+	 * Tags are read in file order, independent of {@link #endian}.
+	 */
+	protected long tag(byte[] m, int o){
+
+	    long v = 0;
+
+	    for (int c = 0; c < this.tag; c++){
+
+		v = ((v << 8)|(m[o+c] & 0xFFL));
+	    }
+	    return v;
+	}
+	protected void tag(byte[] m, int o, long v){
+
+	    for (int c = (this.tag-1); -1 < c; c--){
+
+		m[o+c] = (byte)(v & 0xFF);
+
+		v >>>= 8;
+	    }
+	}
+	protected long length(byte[] m, int o){
+
+	    switch(this.length){
+	    case 1:
+		return (m[o] & 0xFFL);
+	    case 2:
+		return this.endian.uint16(m,o);
+	    case 4:
+		return (this.endian.sint32(m,o) & 0xFFFFFFFFL);
+	    case 8:
+		return this.endian.sint64(m,o);
+	    default:
+		throw new InternalError(String.valueOf(this.length));
+	    }
+	}
+	/**
+	 * A format having a trailer checksum over tag and content
+	 * overrides this method.  The trailer of a dirty chunk is
+	 * computed as the chunk is encoded, and the trailer of a clean
+	 * chunk is copied from its source.
+	 * 
+	 * @return New trailer checksum, or null for none
+	 */
+	public Checksum checksum(){
+
+	    return null;
+	}
+	/**
+	 * Trailer field of checksum value, in {@link #endian} order,
+	 * for a trailer of one to eight bytes.
+	 */
+	protected void trailer(byte[] m, int o, long v){
+
+	    byte[] w = new byte[8];
+
+	    this.endian.sint64(w,0,v);
+
+	    switch(this.endian){
+	    case LE:
+		System.arraycopy(w,0,m,o,this.trailer);
+		break;
+	    case BE:
+		System.arraycopy(w,(8-this.trailer),m,o,this.trailer);
+		break;
+	    default:
+		throw new InternalError(this.endian.name());
+	    }
+	}
+	/**
+	 * @return Tag field of header at offset
+	 */
+	public final long headerTag(byte[] m, int o){
+
+	    return (this.lengthFirst)?(this.tag(m,o+this.length)):(this.tag(m,o));
+	}
+	/**
+	 * @return Length field of header at offset
+	 */
+	public final long headerLength(byte[] m, int o){
+
+	    return (this.lengthFirst)?(this.length(m,o)):(this.length(m,o+this.tag));
+	}
+	protected void length(byte[] m, int o, long v){
+
+	    switch(this.length){
+	    case 1:
+		m[o] = (byte)(v & 0xFF);
+		break;
+	    case 2:
+		this.endian.uint16(m,o,(int)v);
+		break;
+	    case 4:
+		this.endian.sint32(m,o,(int)v);
+		break;
+	    case 8:
+		this.endian.sint64(m,o,v);
+		break;
+	    default:
+		throw new InternalError(String.valueOf(this.length));
+	    }
+	}
+
+	private static boolean width(int w){
+
+	    return (1 == w || 2 == w || 4 == w || 8 == w);
+	}
+    }
+
+
+    public final Format format;
+
+    public final long tag;
+    /**
+     * Container prefix, or leaf content.
+     */
+    protected RandomAccessBuffer content;
+    /**
+     * Trailer from source.
+     */
+    protected RandomAccessBuffer trailer;
+
+
+    /**
+     * New chunk to be encoded.
+     * 
+     * @param content Leaf content, or container prefix
+     */
+    public Chunk(Container parent, Format format, long tag, RandomAccessBuffer content){
+	super(parent);
+	if (null != format){
+	    this.format = format;
+	    this.tag = tag;
+	    this.content = content;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+    /**
+     * Parsed chunk.
+     * 
+     * @param source Window over header, content, trailer, and pad
+     */
+    protected Chunk(Container parent, Format format, long tag, RandomAccessBuffer source,
+		    RandomAccessBuffer content, RandomAccessBuffer trailer)
+    {
+	super(parent,source);
+	this.format = format;
+	this.tag = tag;
+	this.content = content;
+	this.trailer = trailer;
+    }
+
+
+    /**
+     * Parse buffer from its I/O pointer as a sequence of chunks.
+     * 
+     * @return Document root container having no header
+     */
+    public static Chunk parse(Format f, RandomAccessData d){
+
+	Chunk root = new Chunk(null,f,0L,d,null,null){
+		public int header(int content){
+		    return 0;
+		}
+		protected void header(int content, LocationOutputStream out){
+		}
+		public boolean container(){
+		    return true;
+		}
+		public int trailer(){
+		    return 0;
+		}
+		protected int pad(int size){
+		    return 0;
+		}
+	    };
+	parse(f,root,d,d.offset(),(d.offset()+d.available()));
+
+	return root;
+    }
+    /**
+     * Recursive descent over external offsets {@code [x,z)} of the
+     * argument buffer.
+     */
+    protected static void parse(Format f, Chunk parent, RandomAccessData d, int x, int z){
+
+	final int h = f.header();
+	final Window w = d.window;
+
+	while ((x+h) <= z){
+
+	    Events.ComponentRead event = new Events.ComponentRead();
+	    event.begin();
+	    /*
+	     * Single bounds check over header
+	     */
+	    byte[] m;
+	    int i = d.buffer.direct(w,d.state,x,h);
+	    if (-1 < i){
+		m = d.buffer.buffer;
+	    }
+	    else if (null != (m = d.copy(x,h))){
+		i = 0;
+	    }
+	    else {
+		throw new IllegalArgumentException(String.format("chunk header at %d",x));
+	    }
+
+	    long tag = f.headerTag(m,i);
+	    long len = f.headerLength(m,i);
+
+	    long cq = (f.inclusive)?(len-h):(len);
+	    long size = (h+cq+f.trailer);
+
+	    if (0 > cq || (x+size) > z){
+
+		throw new IllegalArgumentException(String.format("chunk at %d, length %d",x,len));
+	    }
+	    int q = (int)cq;
+	    int s = (int)size;
+	    int p = Math.min(f.pad(s),(z-x-s));
+
+	    int base = w.internal(x);
+
+	    RandomAccessData cd = (0 < q)?(new RandomAccessData(f.endian,d,new Window(base+h,q))):(null);
+
+	    RandomAccessData td = (0 < f.trailer)?(new RandomAccessData(f.endian,d,new Window(base+h+q,f.trailer))):(null);
+
+	    Chunk c = new Chunk(parent,f,tag,new RandomAccessData(f.endian,d,new Window(base,s+p)),cd,td);
+
+	    parent.add(c);
+
+	    if (event.isEnabled()){
+
+		event.location = x;
+		event.length = (s+p);
+		event.depth = Events.depth(c);
+		event.commit();
+	    }
+
+	    if (f.container(tag) && null != cd){
+
+		if (f.prefix <= q){
+
+		    c.content = (0 < f.prefix)?(new RandomAccessData(f.endian,d,new Window(base+h,f.prefix))):(null);
+
+		    parse(f,c,d,(x+h+f.prefix),(x+h+q));
+		}
+		else {
+		    throw new IllegalArgumentException(String.format("container at %d, length %d",x,len));
+		}
+	    }
+	    x += (s+p);
+	}
+
+	if (x != z){
+
+	    throw new IllegalArgumentException(String.format("chunk header at %d",x));
+	}
+    }
+    /**
+     * @return Parsed or encoded as container
+     */
+    public boolean container(){
+
+	return this.format.container(this.tag);
+    }
+    /**
+     * Leaf content, or container prefix.
+     */
+    public RandomAccessBuffer data(){
+
+	return this.content;
+    }
+    /**
+     * Replace leaf content, or container prefix.
+     */
+    public void data(RandomAccessBuffer content){
+
+	this.content = content;
+
+	this.touch();
+    }
+    /**
+     * Container children, or leaf content.
+     */
+    public int content(){
+
+	if (this.container()){
+
+	    return super.content();
+	}
+	else {
+	    return (null != this.content)?(this.content.available()):(0);
+	}
+    }
+    /**
+     * Header, and container prefix.
+     */
+    public int header(int content){
+
+	if (this.container()){
+
+	    return this.format.header()+this.format.prefix;
+	}
+	else {
+	    return this.format.header();
+	}
+    }
+    public int length(){
+
+	if (this.dirty){
+
+	    int c = this.content();
+
+	    int s = (this.header(c)+c+this.trailer());
+
+	    return (s+this.pad(s));
+	}
+	else {
+	    return this.length;
+	}
+    }
+    /**
+     * @return Size of trailer
+     */
+    public int trailer(){
+
+	return this.format.trailer;
+    }
+    protected int pad(int size){
+
+	return this.format.pad(size);
+    }
+    protected void header(int content, LocationOutputStream out)
+	throws IOException
+    {
+	Format f = this.format;
+
+	byte[] m = new byte[f.header()];
+
+	boolean container = this.container();
+
+	long len = (container)?(content+f.prefix):(content);
+	if (f.inclusive){
+	    len += f.header();
+	}
+
+	if (f.lengthFirst){
+	    f.length(m,0,len);
+	    f.tag(m,f.length,this.tag);
+	}
+	else {
+	    f.tag(m,0,this.tag);
+	    f.length(m,f.tag,len);
+	}
+	out.write(m,0,m.length);
+
+	if (container && 0 < f.prefix){
+
+	    if (null != this.content){
+
+		this.content.copy(0,f.prefix,out);
+	    }
+	    else {
+		out.write(new byte[f.prefix],0,f.prefix);
+	    }
+	}
+    }
+    protected void encode(LocationOutputStream out)
+	throws IOException
+    {
+	int c = this.content();
+
+	this.header(c,out);
+	/*
+	 * Trailer checksum over tag and content
+	 */
+	Checksum sum = (0 < this.trailer())?(this.format.checksum()):(null);
+
+	LocationOutputStream body = out;
+	if (null != sum){
+
+	    this.checksum(sum);
+
+	    body = new ChecksumOutput(out,sum);
+	}
+
+	if (this.container()){
+
+	    for (Component k : this.children){
+
+		k.write(body);
+	    }
+	}
+	else if (null != this.content && 0 < c){
+
+	    this.content.copy(0,c,body);
+	}
+
+	this.trailer(out,sum);
+
+	int s = (this.header(c)+c+this.trailer());
+	int p = this.pad(s);
+
+	for (int cc = 0; cc < p; cc++){
+
+	    out.write(0);
+	}
+	this.length = (s+p);
+    }
+    /**
+     * Update checksum with tag, and container prefix.
+     */
+    protected void checksum(Checksum sum){
+
+	Format f = this.format;
+
+	byte[] m = new byte[f.tag];
+
+	f.tag(m,0,this.tag);
+
+	sum.update(m,0,m.length);
+
+	if (this.container() && 0 < f.prefix){
+
+	    if (null != this.content){
+
+		Hash.update(sum,this.content,0,f.prefix);
+	    }
+	    else {
+		sum.update(new byte[f.prefix],0,f.prefix);
+	    }
+	}
+    }
+    /**
+     * Write trailer from checksum, or from source, or zero.
+     * 
+     * @param sum Format checksum over tag and content, or null
+     */
+    protected void trailer(LocationOutputStream out, Checksum sum)
+	throws IOException
+    {
+	int t = this.trailer();
+	if (0 < t){
+
+	    if (null != sum){
+
+		byte[] m = new byte[t];
+
+		this.format.trailer(m,0,sum.getValue());
+
+		out.write(m,0,t);
+	    }
+	    else if (null != this.trailer){
+
+		this.trailer.copy(0,t,out);
+	    }
+	    else {
+		out.write(new byte[t],0,t);
+	    }
+	}
+    }
+    /**
+     * Read this chunk from the stream into a new buffer, and parse its
+     * children as from {@link #parse(Format,RandomAccessData) parse}.
+     * The document root reads the stream to its end.  A trailing pad
+     * may be absent at the end of the stream.
+     * 
+     * @exception java.io.EOFException Stream ends within header,
+     * content, or trailer
+     * @exception IOException Header tag is not the tag of this chunk
+     */
+    public void read(LocationInputStream in)
+	throws IOException
+    {
+	final Format f = this.format;
+	final long offset = in.offset();
+	final int h = f.header();
+
+	this.children.clear();
+
+	this.invalidate();
+
+	if (0 == this.header(0)){
+	    /*
+	     * Document root
+	     */
+	    byte[] b = new byte[0x200];
+	    int n = 0, r;
+	    while (0 < (r = in.read(b,n,(b.length-n)))){
+		n += r;
+		if (n == b.length){
+
+		    b = Arrays.copyOf(b,(n << 1));
+		}
+	    }
+	    RandomAccessData d = new RandomAccessData(new Printer.Configuration(),f.endian,b,0,n);
+
+	    this.source = d;
+	    this.length = n;
+
+	    parse(f,this,d,0,n);
+	}
+	else {
+	    byte[] m = new byte[h];
+
+	    read(in,m,0,h);
+
+	    long tag = f.headerTag(m,0);
+	    long len = f.headerLength(m,0);
+
+	    long cq = (f.inclusive)?(len-h):(len);
+	    long size = (h+cq+f.trailer);
+
+	    if (tag != this.tag){
+
+		throw new IOException(String.format("chunk tag at %d",offset));
+	    }
+	    else if (0 > cq || Integer.MAX_VALUE < size){
+
+		throw new IOException(String.format("chunk at %d, length %d",offset,len));
+	    }
+	    int q = (int)cq;
+	    int s = (int)size;
+	    int p = f.pad(s);
+
+	    byte[] b = Arrays.copyOf(m,s+p);
+
+	    read(in,b,h,(s-h));
+	    /*
+	     * Pad is lenient at the end of the stream
+	     */
+	    for (int x = s, z = (s+p), r; x < z; x += r){
+
+		if (0 > (r = in.read(b,x,(z-x)))){
+
+		    p = (x-s);
+		    break;
+		}
+	    }
+	    RandomAccessData d = new RandomAccessData(new Printer.Configuration(),f.endian,b,0,(s+p));
+
+	    this.source = d;
+	    this.length = (s+p);
+
+	    this.content = (0 < q)?(new RandomAccessData(f.endian,d,new Window(h,q))):(null);
+
+	    this.trailer = (0 < f.trailer)?(new RandomAccessData(f.endian,d,new Window(h+q,f.trailer))):(null);
+
+	    if (f.container(tag) && 0 < q){
+
+		if (f.prefix <= q){
+
+		    this.content = (0 < f.prefix)?(new RandomAccessData(f.endian,d,new Window(h,f.prefix))):(null);
+
+		    parse(f,this,d,(h+f.prefix),(h+q));
+		}
+		else {
+		    throw new IOException(String.format("container at %d, length %d",offset,len));
+		}
+	    }
+	}
+	this.dirty = false;
+	/*
+	 * Locate children by stream offset
+	 */
+	this.layout(offset);
+    }
+    /**
+     * Read fully, or throw EOF.
+     */
+    private static void read(LocationInputStream in, byte[] b, int o, int l)
+	throws IOException
+    {
+	for (int r; 0 < l; o += r, l -= r){
+
+	    if (0 > (r = in.read(b,o,l))){
+
+		throw new EOFException(String.format("offset: %d, length: %d",in.offset(),l));
+	    }
+	}
+    }
+    /**
+     * @return The trailer of a parsed chunk is the format checksum
+     * over its tag and content, or the format has no checksum
+     */
+    public boolean verify(){
+
+	Checksum sum = this.format.checksum();
+
+	if (null == sum || null == this.trailer || null == this.source){
+
+	    return true;
+	}
+	else {
+	    Format f = this.format;
+
+	    int h = f.header();
+	    int q = (this.trailer.window.delta-this.source.window.delta-h);
+
+	    byte[] m = new byte[f.tag];
+
+	    f.tag(m,0,this.tag);
+
+	    sum.update(m,0,m.length);
+
+	    if (0 < q){
+
+		Hash.update(sum,this.source,h,q);
+	    }
+
+	    m = new byte[f.trailer];
+
+	    f.trailer(m,0,sum.getValue());
+
+	    return this.trailer.equals(0,m);
+	}
+    }
+    /**
+     * @return Tag as text
+     */
+    public String name(){
+
+	StringBuilder string = new StringBuilder();
+
+	for (int c = (this.format.tag-1); -1 < c; c--){
+
+	    int ch = (int)((this.tag >>> (c << 3)) & 0xFF);
+
+	    if (0x20 <= ch && 0x7F > ch){
+
+		string.append((char)ch);
+	    }
+	    else {
+		string.append(String.format("\\x%02X",ch));
+	    }
+	}
+	return string.toString();
+    }
+    public void println(PrintStream out){
+
+	this.println(0,out);
+    }
+    public void println(int depth, PrintStream out){
+
+	for (int cc = 0; cc < depth; cc++){
+
+	    out.print("  ");
+	}
+	out.printf("%s offset: %d, length: %d%n",this.name(),this.offset,this.length());
+
+	for (Component c : this.children){
+
+	    c.println(depth+1,out);
+	}
+    }
+    /**
+     * @return Tag of text, as in file order
+     */
+    public static long tag(String name){
+
+	long v = 0;
+
+	for (int c = 0, z = name.length(); c < z; c++){
+
+	    v = ((v << 8)|(name.charAt(c) & 0xFF));
+	}
+	return v;
+    }
+}
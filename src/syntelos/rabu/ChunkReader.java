@@ -0,0 +1,455 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser of a stream of chunks.
+ * 
+ * Bytes pushed into the reader are parsed into {@link Chunk chunks}
+ * as soon as each is complete.  A container is opened once its header
+ * and prefix are available, and its children are delivered as they
+ * complete, so a container is never held in memory.  The fully
+ * consumed prefix of the reader buffer is discarded by compaction,
+ * and the buffer is bounded by the largest leaf chunk rather than the
+ * size of the stream.
+ * 
+ * Delivered chunks are windows over the reader buffer, valid for the
+ * duration of the {@link Handler handler} call.  A handler retaining
+ * a chunk must copy its content.  The {@link Location#offset()
+ * offset} of a delivered chunk is its position in the stream.
+ * 
+ * @see Chunk#parse(Chunk.Format,RandomAccessData)
+ */
+public class ChunkReader
+    extends Object
+{
+    /**
+     * Stream parser events.
+     */
+    public interface Handler {
+	/**
+	 * Container header and prefix are available.
+	 * 
+	 * @param depth Count of open containers enclosing this chunk
+	 */
+	public void open(Chunk container, int depth)
+	    throws IOException;
+	/**
+	 * Leaf chunk is available.
+	 */
+	public void chunk(Chunk leaf, int depth)
+	    throws IOException;
+	/**
+	 * Container content and trailer have been consumed.
+	 */
+	public void close(Chunk container, int depth)
+	    throws IOException;
+    }
+    /**
+     * Open container.
+     */
+    private final static class Open {
+
+	final Chunk chunk;
+	/**
+	 * Content bytes to follow.
+	 */
+	long remaining;
+	/**
+	 * Trailer and pad bytes following content.
+	 */
+	final int tail;
+
+
+	Open(Chunk chunk, long remaining, int tail){
+	    super();
+	    this.chunk = chunk;
+	    this.remaining = remaining;
+	    this.tail = tail;
+	}
+    }
+    /**
+     * Minimum read transfer.
+     */
+    private final static int READ = 0x2000;
+
+
+    public final Chunk.Format format;
+
+    protected final Handler handler;
+
+    protected final RandomAccessData rada;
+    /**
+     * Internal index of the unconsumed region.
+     */
+    protected int head;
+    /**
+     * Stream offset of internal index zero.
+     */
+    protected long base;
+    /**
+     * Stream bytes to skip, as a file signature.
+     */
+    protected long skip;
+
+    private final List<Open> stack = new ArrayList<Open>();
+
+    private int peak;
+
+
+    public ChunkReader(Printer.Configuration c, Chunk.Format f, Handler h){
+	super();
+	if (null != f && null != h){
+	    this.format = f;
+	    this.handler = h;
+	    this.rada = new RandomAccessData(c,f.endian);
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    /**
+     * Discard leading bytes of the stream, as a file signature.
+     */
+    public void skip(long count){
+
+	if (-1 < count){
+
+	    this.skip += count;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(count));
+	}
+    }
+    /**
+     * @return Stream offset of the unconsumed region
+     */
+    public long offset(){
+
+	return (this.base+this.head);
+    }
+    /**
+     * @return Count of open containers
+     */
+    public int depth(){
+
+	return this.stack.size();
+    }
+    /**
+     * @return Greatest buffer capacity
+     */
+    public int peak(){
+
+	return this.peak;
+    }
+    /**
+     * Push bytes into the parser.
+     */
+    public void feed(byte[] b, int o, int l)
+	throws IOException
+    {
+	if (0 < l){
+
+	    Buffer buffer = this.rada.buffer;
+
+	    this.room(l);
+
+	    System.arraycopy(b,o,buffer.buffer,buffer.length,l);
+
+	    buffer.length += l;
+
+	    this.parse(false);
+	}
+    }
+    /**
+     * Read and parse the argument to its end, then {@link #close()}.
+     * 
+     * @return Count of bytes read
+     */
+    public long feed(InputStream in)
+	throws IOException
+    {
+	Buffer buffer = this.rada.buffer;
+	long count = 0;
+	int r;
+	do {
+	    this.room(READ);
+
+	    r = in.read(buffer.buffer,buffer.length,(buffer.buffer.length-buffer.length));
+	    if (0 < r){
+
+		buffer.length += r;
+
+		count += r;
+
+		this.parse(false);
+	    }
+	}
+	while (-1 < r);
+
+	this.close();
+
+	return count;
+    }
+    /**
+     * Read and parse the argument to its end, then {@link #close()}.
+     * 
+     * @return Count of bytes read
+     */
+    public long feed(ReadableByteChannel in)
+	throws IOException
+    {
+	Buffer buffer = this.rada.buffer;
+	long count = 0;
+	int r;
+	do {
+	    this.room(READ);
+
+	    ByteBuffer bb = ByteBuffer.wrap(buffer.buffer,buffer.length,(buffer.buffer.length-buffer.length));
+
+	    r = in.read(bb);
+	    if (0 < r){
+
+		buffer.length += r;
+
+		count += r;
+
+		this.parse(false);
+	    }
+	}
+	while (-1 < r);
+
+	this.close();
+
+	return count;
+    }
+    /**
+     * End of stream, accepting a final chunk without its pad.
+     * 
+     * @exception EOFException Incomplete chunk or container
+     */
+    public void close()
+	throws IOException
+    {
+	this.parse(true);
+
+	Buffer buffer = this.rada.buffer;
+
+	if (this.head < buffer.length || !this.stack.isEmpty()){
+
+	    throw new EOFException(String.format("incomplete chunk at offset %d",this.offset()));
+	}
+    }
+    /**
+     * Deliver each complete chunk in the unconsumed region.
+     */
+    protected void parse(boolean eof)
+	throws IOException
+    {
+	final Chunk.Format f = this.format;
+	final Buffer buffer = this.rada.buffer;
+	final int h = f.header();
+
+	while (true){
+
+	    int avail = (buffer.length-this.head);
+
+	    if (0 < this.skip){
+
+		int q = (int)Math.min(this.skip,avail);
+
+		this.head += q;
+		this.skip -= q;
+
+		if (0 < this.skip){
+		    return;
+		}
+		else {
+		    continue;
+		}
+	    }
+
+	    Open parent = this.stack.isEmpty()?(null):(this.stack.get(this.stack.size()-1));
+
+	    if (null != parent && 0 == parent.remaining){
+		/*
+		 * Close container
+		 */
+		int tail = (eof)?(Math.min(parent.tail,avail)):(parent.tail);
+
+		if (tail <= avail){
+
+		    this.head += tail;
+
+		    this.stack.remove(this.stack.size()-1);
+
+		    this.handler.close(parent.chunk,this.stack.size());
+
+		    continue;
+		}
+		else {
+		    return;
+		}
+	    }
+	    else if (h > avail){
+
+		return;
+	    }
+
+	    byte[] m = buffer.buffer;
+	    int i = this.head;
+
+	    long tag, len;
+	    if (f.lengthFirst){
+		len = f.length(m,i);
+		tag = f.tag(m,i+f.length);
+	    }
+	    else {
+		tag = f.tag(m,i);
+		len = f.length(m,i+f.tag);
+	    }
+	    long cq = (f.inclusive)?(len-h):(len);
+	    long size = (h+cq+f.trailer);
+
+	    if (0 > cq || Integer.MAX_VALUE < size || (null != parent && size > parent.remaining)){
+
+		throw new IllegalArgumentException(String.format("chunk at offset %d, length %d",this.offset(),len));
+	    }
+	    int q = (int)cq;
+	    int s = (int)size;
+	    int p = f.pad(s);
+	    if (null != parent){
+
+		p = (int)Math.min(p,(parent.remaining-s));
+	    }
+	    int depth = this.stack.size();
+
+	    if (f.container(tag)){
+
+		int hp = (h+f.prefix);
+
+		if (q < f.prefix){
+
+		    throw new IllegalArgumentException(String.format("container at offset %d, length %d",this.offset(),len));
+		}
+		else if (hp > avail){
+
+		    this.room(hp-avail);
+		    return;
+		}
+
+		RandomAccessData prefix = (0 < f.prefix)?(new RandomAccessData(f.endian,this.rada,new Window(i+h,f.prefix))):(null);
+
+		Chunk c = this.chunk(parent,tag,new Window(i,hp),prefix,null,(s+p));
+
+		if (null != parent){
+
+		    parent.remaining -= (s+p);
+		}
+		this.stack.add(new Open(c,(q-f.prefix),(f.trailer+p)));
+
+		this.head += hp;
+
+		this.handler.open(c,depth);
+	    }
+	    else {
+		int total = (s+p);
+
+		if (total > avail){
+
+		    if (eof && null == parent && s <= avail){
+
+			total = avail;
+		    }
+		    else {
+			this.room(total-avail);
+			return;
+		    }
+		}
+
+		RandomAccessData content = (0 < q)?(new RandomAccessData(f.endian,this.rada,new Window(i+h,q))):(null);
+
+		RandomAccessData trailer = (0 < f.trailer)?(new RandomAccessData(f.endian,this.rada,new Window(i+h+q,f.trailer))):(null);
+
+		Chunk c = this.chunk(parent,tag,new Window(i,total),content,trailer,total);
+
+		if (null != parent){
+
+		    parent.remaining -= total;
+		}
+		this.head += total;
+
+		this.handler.chunk(c,depth);
+	    }
+	}
+    }
+    private Chunk chunk(Open parent, long tag, Window source, RandomAccessData content, RandomAccessData trailer, int length){
+
+	Container pc = (null != parent)?(parent.chunk):(null);
+
+	Chunk c = new Chunk(pc,this.format,tag,new RandomAccessData(this.format.endian,this.rada,source),content,trailer);
+
+	c.offset = (this.base+source.delta);
+	c.length = length;
+
+	Events.ComponentRead event = new Events.ComponentRead();
+	if (event.isEnabled()){
+
+	    event.location = c.offset;
+	    event.length = length;
+	    event.depth = this.stack.size();
+	    event.commit();
+	}
+	return c;
+    }
+    /**
+     * Ensure the unconsumed region has room to extend by the
+     * argument, compacting before growing.
+     */
+    private void room(int q){
+
+	Buffer buffer = this.rada.buffer;
+
+	if ((buffer.length+q) > buffer.buffer.length && 0 < this.head){
+
+	    int z = (buffer.length-this.head);
+
+	    System.arraycopy(buffer.buffer,this.head,buffer.buffer,0,z);
+
+	    this.base += this.head;
+
+	    buffer.length = z;
+
+	    this.head = 0;
+	}
+
+	buffer.reserve(buffer.length+q);
+
+	this.peak = Math.max(this.peak,buffer.buffer.length);
+    }
+}
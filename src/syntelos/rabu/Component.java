@@ -37,6 +37,31 @@ import java.io.PrintStream;
 public interface Component
     extends Location
 {
+    /**
+     * @return Enclosing container, or null for the tree root (by
+     * default)
+     */
+    public default Container parent(){
+
+	return null;
+    }
+    /**
+     * A dirty component is encoded for output, while a clean
+     * component is copied from its source.  A component is dirty by
+     * default, and always encoded.
+     * 
+     * @see #touch()
+     */
+    public default boolean dirty(){
+
+	return true;
+    }
+    /**
+     * Mark this component dirty, and each of its ancestors.  No
+     * operation by default.
+     */
+    public default void touch(){
+    }
     /**
      * 
      */
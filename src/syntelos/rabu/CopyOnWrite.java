@@ -0,0 +1,628 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Copy on write view of a region of a source buffer.
+ * 
+ * The view shares the content of its source until a set or write,
+ * when only the touched page is copied privately and modified.  The
+ * source is not changed until {@link #commit() commit}, which writes
+ * back the modified octets of each private page, and {@link
+ * #discard() discard} drops the private pages.  A speculative edit
+ * (patch, validate, then commit or discard) costs one page copy per
+ * page touched.
+ * 
+ * Each view is confined to one thread, while many views over one
+ * source may be edited concurrently by different threads.  Commits
+ * over a source are serialized on the source buffer, and write back
+ * only the octets modified by the view, so sibling views editing
+ * different octets of one page do not overwrite each other.
+ * 
+ * Reading the source, or an untouched page of a view, does not
+ * synchronize with commit.  A reader in another thread may see a
+ * commit partly written, and has no guarantee of seeing it at all,
+ * unless the reader synchronizes on the source buffer.
+ * 
+ * The length of a view is the length of its region: writes overwrite
+ * within the region, and never grow.
+ * 
+ * @see RandomAccessCopyOnWrite
+ */
+public class CopyOnWrite
+    extends Buffer
+{
+    /**
+     * Default page size.
+     */
+    public final static int PAGE = 0x1000;
+
+    /**
+     * Private page with a bitmap of its modified octets.
+     */
+    private final static class Page {
+
+	final byte[] data;
+
+	final long[] bits;
+
+
+	Page(byte[] data){
+	    super();
+	    this.data = data;
+	    this.bits = new long[(data.length+63) >>> 6];
+	}
+
+
+	void touch(int o, int z){
+	    for (; o < z; o++){
+
+		this.bits[o >>> 6] |= (1L << o);
+	    }
+	}
+	boolean touched(int o){
+
+	    return (0L != (this.bits[o >>> 6] & (1L << o)));
+	}
+    }
+
+
+    protected final Buffer source;
+
+    protected final Window window;
+
+    private final State state = new State();
+    /**
+     * External offset of region in source
+     */
+    private final int offset;
+    /**
+     * Internal index of region in a source having contiguous
+     * representation, otherwise negative one
+     */
+    private final int base;
+
+    private final int shift, mask;
+    /**
+     * Private pages by index, null for shared.
+     */
+    private final Page[] pages;
+
+    private int dirty;
+
+
+    /**
+     * @param c Printer configuration
+     * @param source Source buffer
+     * @param w Source window
+     * @param x External offset of region in source
+     * @param q Length of region
+     * @param page Page size, a power of two
+     */
+    public CopyOnWrite(Printer.Configuration c, Buffer source, Window w, int x, int q, int page){
+	super(c);
+	if (null != source && null != w && 0 < page && 0 == (page & (page-1)) &&
+	    source.bounds(w,source.internal(w,this.state,x),q) && w.bounds(source.internal(w,this.state,x),q))
+	{
+	    this.source = source;
+	    this.window = w;
+	    this.offset = x;
+	    this.base = source.direct(w,this.state,x,q);
+	    this.shift = Integer.numberOfTrailingZeros(page);
+	    this.mask = (page-1);
+	    this.pages = new Page[(q+this.mask) >>> this.shift];
+	    this.length = q;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+
+
+    /**
+     * @return Count of private pages
+     */
+    public int dirty(){
+
+	return this.dirty;
+    }
+    /**
+     * Write the modified octets of the private pages to the source,
+     * and drop the private pages.  Readers of the source in other
+     * threads synchronize on the source buffer to see the commit
+     * complete.
+     * 
+     * @return Count of octets written to the source
+     */
+    public int commit(){
+
+	int c = 0;
+
+	synchronized(this.source){
+
+	    for (int k = 0; k < this.pages.length; k++){
+
+		Page p = this.pages[k];
+		if (null != p){
+		    /*
+		     * Write back each run of modified octets
+		     */
+		    for (int o = 0, z = p.data.length; o < z; ){
+
+			if (p.touched(o)){
+
+			    int e = (o+1);
+			    while (e < z && p.touched(e)){
+				e++;
+			    }
+			    int n = (e-o);
+
+			    this.source.set(this.window,this.state,(this.offset+(k << this.shift)+o),p.data,o,n);
+
+			    c += n;
+			    o = e;
+			}
+			else {
+			    o++;
+			}
+		    }
+		    this.pages[k] = null;
+		}
+	    }
+	}
+	this.dirty = 0;
+
+	return c;
+    }
+    /**
+     * Drop the private pages.
+     */
+    public void discard(){
+
+	Arrays.fill(this.pages,null);
+
+	this.dirty = 0;
+    }
+    public void grow(int q){
+
+	throw new IllegalStateException("copy on write");
+    }
+    public boolean bounds(Window w, int i){
+
+	if (-1 < i && i < this.length && w.bounds(i)){
+
+	    return true;
+	}
+	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
+	    return false;
+	}
+    }
+    public boolean bounds(Window w, int i, int q){
+
+	if (-1 < i && 0 < q && (i+q) <= this.length && w.bounds(i,q)){
+
+	    return true;
+	}
+	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
+	    return false;
+	}
+    }
+    public int read(Window w, State s){
+
+	int i = this.internal(w,s);
+
+	if (this.bounds(w,i)){
+
+	    s.external += 1;
+
+	    return this.byteAt(i);
+	}
+	else {
+	    return -1;
+	}
+    }
+    public int read(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+	int q = Math.min(l,this.available(w,s));
+
+	if (this.bounds(w,i,q)){
+
+	    s.external += q;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.read(s,q);
+	    }
+	    this.copy(i,(i+q),b,o);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, PrintStream out){
+
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, WritableByteChannel out)
+	throws IOException
+    {
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * The region is shared with its source.
+     */
+    public boolean clear(Window w, State s){
+
+	return false;
+    }
+    /**
+     * Overwrite within the region.
+     */
+    public boolean write(Window w, State s, int b){
+
+	int i = this.internal(w,s);
+
+	if (this.bounds(w,i)){
+
+	    this.put(i,(byte)b);
+
+	    s.external += 1;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.write(s,1);
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Overwrite within the region.
+     */
+    public boolean write(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+
+	if (this.bounds(w,i,l)){
+
+	    this.put(i,b,o,l);
+
+	    s.external += l;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.write(s,l);
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public byte[] copy(Window w, State s, int x, int q)
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+	    {
+		this.copy(i,(i+q),b,0);
+	    }
+	    return b;
+	}
+	else {
+	    return null;
+	}
+    }
+    public int copy(Window w, State s, int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		Page p = this.pages[i >>> this.shift];
+		if (null != p){
+
+		    out.write(p.data,o,n);
+		}
+		else if (-1 < this.base){
+
+		    out.write(this.source.buffer,(this.base+i),n);
+		}
+		else {
+		    out.write(this.source.copy(this.window,this.state,(this.offset+i),n),0,n);
+		}
+		i += n;
+	    }
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean update(Window w, State s, int x, int q, Checksum c){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		Page p = this.pages[i >>> this.shift];
+		if (null != p){
+
+		    c.update(p.data,o,n);
+		}
+		else if (-1 < this.base){
+
+		    c.update(this.source.buffer,(this.base+i),n);
+		}
+		else {
+		    this.source.update(this.window,this.state,(this.offset+i),n,c);
+		}
+		i += n;
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public int get(Window w, State s, int x){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    return this.byteAt(i);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, int v){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    this.put(i,(byte)v);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,l)){
+
+	    this.put(i,b,o,l);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,l));
+	}
+    }
+    /**
+     * The view has no contiguous representation.
+     */
+    public int direct(Window w, State s, int x, int q){
+
+	return -1;
+    }
+    public int indexOf(Window w, State s, int c){
+
+	int x = s.external;
+	int i = this.internal(w,s);
+
+	while (this.bounds(w,i)){
+
+	    if (c == this.byteAt(i)){
+
+		return x;
+	    }
+	    else {
+		i++; x++;
+	    }
+	}
+	return -1;
+    }
+    public String substring(Window w, State s, int o, int l, Charset cs){
+
+	byte[] b = this.copy(w,s,o,Math.min(l,this.available(w,s)));
+	if (null != b){
+
+	    return new String(b,0,b.length,cs);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public String substring(Window w, State s, int o, int l, Intern cache){
+
+	byte[] b = this.copy(w,s,o,Math.min(l,this.available(w,s)));
+	if (null != b){
+
+	    return cache.intern(b,0,b.length);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public boolean equals(Window w, State s, int o, byte[] p){
+
+	int i = this.internal(w,s,o);
+	int q = p.length;
+
+	if (this.bounds(w,i,q)){
+
+	    for (int cc = 0; cc < q; cc++){
+
+		if (p[cc] != (byte)this.byteAt(i+cc)){
+
+		    return false;
+		}
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    protected final int byteAt(int i){
+
+	Page p = this.pages[i >>> this.shift];
+	if (null != p){
+
+	    return (p.data[i & this.mask] & 0xFF);
+	}
+	else if (-1 < this.base){
+
+	    return (this.source.buffer[this.base+i] & 0xFF);
+	}
+	else {
+	    return this.source.get(this.window,this.state,(this.offset+i));
+	}
+    }
+    protected final void copy(int i, int z, byte[] b, int o){
+
+	while (i < z){
+
+	    int x = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-x));
+
+	    Page p = this.pages[i >>> this.shift];
+	    if (null != p){
+
+		System.arraycopy(p.data,x,b,o,n);
+	    }
+	    else if (-1 < this.base){
+
+		System.arraycopy(this.source.buffer,(this.base+i),b,o,n);
+	    }
+	    else {
+		System.arraycopy(this.source.copy(this.window,this.state,(this.offset+i),n),0,b,o,n);
+	    }
+	    i += n;
+	    o += n;
+	}
+    }
+    private void put(int i, byte v){
+
+	int o = (i & this.mask);
+
+	Page p = this.page(i >>> this.shift);
+
+	p.data[o] = v;
+
+	p.touch(o,(o+1));
+    }
+    private void put(int i, byte[] b, int o, int l){
+
+	for (int z = (i+l); i < z; ){
+
+	    int x = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-x));
+
+	    Page p = this.page(i >>> this.shift);
+
+	    System.arraycopy(b,o,p.data,x,n);
+
+	    p.touch(x,(x+n));
+
+	    i += n;
+	    o += n;
+	}
+    }
+    /**
+     * Copy a shared page privately, on first touch.
+     */
+    private Page page(int k){
+
+	Page p = this.pages[k];
+	if (null == p){
+
+	    int i = (k << this.shift);
+	    int n = Math.min((this.mask+1),(this.length-i));
+
+	    byte[] data = new byte[this.mask+1];
+
+	    this.copy(i,(i+n),data,0);
+
+	    p = new Page(data);
+
+	    this.pages[k] = p;
+
+	    this.dirty += 1;
+	}
+	return p;
+    }
+}
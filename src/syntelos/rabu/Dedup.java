@@ -0,0 +1,223 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content addressed store of read only buffers.
+ * 
+ * A region carved from a {@link RandomAccessBuffer rabu} is keyed by
+ * its {@link XXHash64 hash} and length, computed in place.  The first
+ * occurrence of content is copied into a {@link ReadOnlyBuffer}, and
+ * each repeated occurrence is verified and shares that copy.  Every
+ * caller receives its own I/O pointer over the shared content.
+ * 
+ * The store is safe for concurrent use.
+ */
+public class Dedup
+    extends Object
+{
+    /**
+     * Content key.
+     */
+    private final static class Key {
+
+	final long hash;
+
+	final int length;
+
+
+	Key(long hash, int length){
+	    super();
+	    this.hash = hash;
+	    this.length = length;
+	}
+
+
+	public int hashCode(){
+
+	    return (int)(this.hash ^ (this.hash >>> 32));
+	}
+	public boolean equals(Object that){
+
+	    if (that instanceof Key){
+
+		Key k = (Key)that;
+
+		return (this.hash == k.hash && this.length == k.length);
+	    }
+	    else {
+		return false;
+	    }
+	}
+    }
+
+
+    protected final Printer.Configuration configuration;
+
+    private final ConcurrentHashMap<Key,ReadOnlyBuffer> store = new ConcurrentHashMap<Key,ReadOnlyBuffer>();
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), saved = new LongAdder(), resident = new LongAdder();
+
+
+    public Dedup(Printer.Configuration c){
+	super();
+	this.configuration = c;
+    }
+
+
+    /**
+     * Carve a region of the argument as shared, read only content.
+     * 
+     * @param r Source buffer
+     * @param x External offset of region
+     * @param q Length of region
+     * @return New I/O pointer over shared content
+     */
+    public RandomAccessBuffer intern(RandomAccessBuffer r, int x, int q){
+
+	if (0 >= q){
+
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+
+	Key key = new Key(this.hash(r,x,q),q);
+
+	ReadOnlyBuffer shared = this.store.get(key);
+
+	if (null != shared){
+
+	    if (equal(shared,r,x,q)){
+
+		this.hits.increment();
+		this.saved.add(q);
+	    }
+	    else {
+		/*
+		 * Hash collision is not shared
+		 */
+		this.misses.increment();
+
+		shared = new ReadOnlyBuffer(this.configuration,r.copy(x,q));
+	    }
+	}
+	else {
+	    ReadOnlyBuffer copy = new ReadOnlyBuffer(this.configuration,r.copy(x,q));
+
+	    shared = this.store.putIfAbsent(key,copy);
+	    if (null == shared){
+
+		this.misses.increment();
+		this.resident.add(q);
+
+		shared = copy;
+	    }
+	    else if (equal(shared,r,x,q)){
+
+		this.hits.increment();
+		this.saved.add(q);
+	    }
+	    else {
+		this.misses.increment();
+
+		shared = copy;
+	    }
+	}
+	return new RandomAccessBuffer(shared,new Window());
+    }
+    /**
+     * Content key hash, computed in place.  Content sharing a hash
+     * and length is compared before it is shared.
+     * 
+     * @param r Source buffer
+     * @param x External offset of region
+     * @param q Length of region
+     * @return Hash of region
+     */
+    protected long hash(RandomAccessBuffer r, int x, int q){
+
+	return Hash.xxh64(r,x,q);
+    }
+    /**
+     * @return Count of regions sharing stored content
+     */
+    public long hits(){
+
+	return this.hits.sum();
+    }
+    /**
+     * @return Count of regions copied
+     */
+    public long misses(){
+
+	return this.misses.sum();
+    }
+    /**
+     * @return Sum of lengths of regions sharing stored content
+     */
+    public long saved(){
+
+	return this.saved.sum();
+    }
+    /**
+     * @return Sum of lengths of stored content
+     */
+    public long resident(){
+
+	return this.resident.sum();
+    }
+    /**
+     * @return Count of stored content
+     */
+    public int size(){
+
+	return this.store.size();
+    }
+    /**
+     * Release stored content.  Buffers returned by {@link
+     * #intern(RandomAccessBuffer,int,int) intern} are unaffected.
+     */
+    public void clear(){
+
+	this.store.clear();
+	this.resident.reset();
+    }
+    public String toString(){
+
+	return String.format("dedup content: %d, resident: %d, hits: %d, misses: %d, saved: %d",
+			     this.size(),this.resident(),this.hits(),this.misses(),this.saved());
+    }
+
+    private static boolean equal(ReadOnlyBuffer shared, RandomAccessBuffer r, int x, int q){
+
+	byte[] b;
+	int i = r.buffer.direct(r.window,r.state,x,q);
+	if (-1 < i){
+
+	    b = r.buffer.buffer;
+	}
+	else {
+	    b = r.copy(x,q);
+	    i = 0;
+	}
+	return (null != b && Arrays.equals(shared.buffer,0,q,b,i,(i+q)));
+    }
+}
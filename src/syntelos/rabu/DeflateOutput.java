@@ -0,0 +1,247 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Location output compressing a block as it is written, with no
+ * intermediate buffer for the block.
+ * 
+ * A block is written as its header with a placeholder length,
+ * followed by the output of this decorator.  Closing the decorator
+ * finishes the compressed stream, and patches its length into the
+ * header of the parent output.  Closing does not close the parent
+ * output, which continues with the content following the block.
+ * 
+ * Each block has its own compression level.  Deflaters are pooled
+ * by level and format, and reset for reuse.
+ * 
+ * The {@link #offset() offset} of this output is the count of bytes
+ * written into the block, before compression.
+ * 
+ * @see Inflate
+ * @see BufferOutput
+ */
+public class DeflateOutput
+    extends Object
+    implements LocationOutputStream
+{
+    /**
+     * Maximum count of idle deflaters per level and format.
+     */
+    public final static int POOL = 0x10;
+
+    private final static ConcurrentLinkedQueue<Deflater>[] DEFLATERS = pool();
+
+    @SuppressWarnings({"unchecked","rawtypes"})
+    private static ConcurrentLinkedQueue<Deflater>[] pool(){
+
+	ConcurrentLinkedQueue<Deflater>[] pool = new ConcurrentLinkedQueue[22];
+	for (int cc = 0; cc < pool.length; cc++){
+	    pool[cc] = new ConcurrentLinkedQueue<Deflater>();
+	}
+	return pool;
+    }
+    private static int pool(int level, boolean nowrap){
+
+	return (((level+1) << 1)|((nowrap)?(1):(0)));
+    }
+
+
+    protected final PatchOutputStream out;
+
+    public final int level;
+
+    public final boolean nowrap;
+    /**
+     * Header length field location in parent output
+     */
+    protected final long field;
+    /**
+     * Header length field width, from one to eight bytes
+     */
+    protected final int width;
+    /**
+     * Header length field byte order
+     */
+    protected final Endian endian;
+    /**
+     * Addend to compressed length, as for a length inclusive of its
+     * header
+     */
+    protected final long bias;
+
+    private Deflater deflater;
+
+    private final byte[] block = new byte[0x2000];
+
+    private long compressed;
+
+    private long uncompressed;
+
+
+    /**
+     * @param out Parent output having the header of this block
+     * @param level Compression level from zero to nine, or {@link
+     * Deflater#DEFAULT_COMPRESSION}
+     * @param nowrap Raw deflate, rather than zlib
+     * @param field Location of header length field in parent output
+     * @param width Width of header length field, in bytes
+     * @param endian Byte order of header length field
+     * @param bias Addend to compressed length for header field
+     */
+    public DeflateOutput(PatchOutputStream out, int level, boolean nowrap,
+			 long field, int width, Endian endian, long bias)
+    {
+	super();
+	if (null != out && -1 <= level && 9 >= level && -1 < field &&
+	    0 < width && 8 >= width && null != endian)
+	{
+	    this.out = out;
+	    this.level = level;
+	    this.nowrap = nowrap;
+	    this.field = field;
+	    this.width = width;
+	    this.endian = endian;
+	    this.bias = bias;
+
+	    Deflater d = DEFLATERS[pool(level,nowrap)].poll();
+	    if (null == d){
+		d = new Deflater(level,nowrap);
+	    }
+	    this.deflater = d;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("level: %d, field: %d, width: %d",level,field,width));
+	}
+    }
+
+
+    /**
+     * @return Bytes written into the block
+     */
+    public long offset(){
+
+	return this.uncompressed;
+    }
+    /**
+     * @return Bytes of compressed output, complete when closed
+     */
+    public long compressed(){
+
+	return this.compressed;
+    }
+    public void write(int b) throws IOException {
+
+	this.write(new byte[]{(byte)b},0,1);
+    }
+    public void write(byte b[], int o, int l) throws IOException {
+
+	if (null == this.deflater){
+
+	    throw new IOException("closed");
+	}
+	else if (0 < l){
+
+	    this.deflater.setInput(b,o,l);
+
+	    while (!this.deflater.needsInput()){
+
+		this.deflate();
+	    }
+	    this.uncompressed += l;
+	}
+    }
+    /**
+     * Flush the parent output, without a sync flush of the
+     * compressed stream.
+     */
+    public void flush() throws IOException {
+
+	this.out.flush();
+    }
+    /**
+     * Finish the compressed stream, patch its length into the parent
+     * header, and release the deflater.
+     */
+    public void close() throws IOException {
+
+	Deflater d = this.deflater;
+	if (null != d){
+	    try {
+		d.finish();
+
+		while (!d.finished()){
+
+		    this.deflate();
+		}
+		this.patch(this.compressed+this.bias);
+	    }
+	    finally {
+		this.deflater = null;
+
+		d.reset();
+
+		ConcurrentLinkedQueue<Deflater> q = DEFLATERS[pool(this.level,this.nowrap)];
+		if (POOL > q.size()){
+
+		    q.offer(d);
+		}
+		else {
+		    d.end();
+		}
+	    }
+	}
+    }
+    private void deflate() throws IOException {
+
+	int n = this.deflater.deflate(this.block,0,this.block.length,Deflater.NO_FLUSH);
+	if (0 < n){
+
+	    this.out.write(this.block,0,n);
+
+	    this.compressed += n;
+	}
+    }
+    private void patch(long v) throws IOException {
+
+	int w = this.width;
+
+	if (8 > w && (v >>> (w << 3)) != 0L){
+
+	    throw new IOException(String.format("length %d exceeds field width %d",v,w));
+	}
+	byte[] m = new byte[8];
+
+	this.endian.sint64(m,0,v);
+
+	switch(this.endian){
+	case LE:
+	    this.out.patch(this.field,m,0,w);
+	    break;
+	case BE:
+	    this.out.patch(this.field,m,(8-w),w);
+	    break;
+	default:
+	    throw new InternalError(this.endian.name());
+	}
+    }
+}
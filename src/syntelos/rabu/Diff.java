@@ -0,0 +1,231 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary comparison of two {@link RandomAccessBuffer rabu}, each
+ * from its I/O pointer ({@link State}).
+ * 
+ * Equal regions are skipped by {@link Arrays#mismatch(byte[],int,int,byte[],int,int)
+ * mismatch}, which the runtime compiles to vector (or word at a time)
+ * comparison, so that near identical buffers compare at memory
+ * bandwidth.  Differing regions are scanned until a run of equal
+ * octets (the gap) closes the range.
+ */
+public final class Diff
+    extends Object
+{
+    /**
+     * Default count of equal octets closing a range.
+     */
+    public final static int GAP = 8;
+
+    /**
+     * Region of difference, as offset from each I/O pointer.
+     */
+    public final static class Range {
+
+	public final int offset;
+
+	public final int length;
+
+
+	public Range(int offset, int length){
+	    super();
+	    this.offset = offset;
+	    this.length = length;
+	}
+
+
+	public String toString(){
+
+	    return String.format("offset: %d, length: %d",this.offset,this.length);
+	}
+    }
+
+
+    private Diff(){
+	super();
+    }
+
+
+    public static List<Range> compare(RandomAccessBuffer a, RandomAccessBuffer b){
+
+	return compare(a,b,GAP);
+    }
+    /**
+     * @param gap Count of equal octets closing a range of difference
+     * @return Ranges of difference, including the tail of the longer
+     * argument
+     */
+    public static List<Range> compare(RandomAccessBuffer a, RandomAccessBuffer b, int gap){
+
+	if (0 >= gap){
+
+	    throw new IllegalArgumentException(String.valueOf(gap));
+	}
+
+	final int qa = a.available();
+	final int qb = b.available();
+	final int n = Math.min(qa,qb);
+
+	List<Range> list = new ArrayList<Range>();
+
+	if (0 < n){
+
+	    final byte[] ab, bb;
+	    final int ai, bi;
+	    {
+		int i = a.buffer.direct(a.window,a.state,a.offset(),n);
+		if (-1 < i){
+		    ab = a.buffer.buffer;
+		    ai = i;
+		}
+		else {
+		    ab = a.copy(a.offset(),n);
+		    ai = 0;
+		}
+		i = b.buffer.direct(b.window,b.state,b.offset(),n);
+		if (-1 < i){
+		    bb = b.buffer.buffer;
+		    bi = i;
+		}
+		else {
+		    bb = b.copy(b.offset(),n);
+		    bi = 0;
+		}
+	    }
+
+	    int x = 0;
+
+	    while (x < n){
+
+		int m = Arrays.mismatch(ab,(ai+x),(ai+n),bb,(bi+x),(bi+n));
+		if (0 > m){
+
+		    break;
+		}
+		else {
+		    int s = (x+m);
+		    int e = (s+1);
+
+		    while (e < n){
+
+			int z = Math.min(n,(e+gap));
+
+			int k = Arrays.mismatch(ab,(ai+e),(ai+z),bb,(bi+e),(bi+z));
+			if (0 > k){
+
+			    break;
+			}
+			else {
+			    e += (k+1);
+			}
+		    }
+		    list.add(new Range(s,(e-s)));
+
+		    x = e;
+		}
+	    }
+	}
+
+	if (qa != qb){
+
+	    int z = Math.max(qa,qb);
+
+	    Range tail = list.isEmpty()?(null):(list.get(list.size()-1));
+
+	    if (null != tail && (tail.offset+tail.length) == n){
+
+		list.set((list.size()-1),new Range(tail.offset,(z-tail.offset)));
+	    }
+	    else {
+		list.add(new Range(n,(z-n)));
+	    }
+	}
+	return list;
+    }
+    /**
+     * Side by side dump of ranges of difference, having lines of the
+     * first argument on the left, and of the second argument on the
+     * right.  A line absent from one side is blank.
+     */
+    public static void print(RandomAccessBuffer a, RandomAccessBuffer b, List<Range> ranges, PrintStream out){
+
+	Printer p = a.buffer;
+
+	int y = p.line();
+	byte[] lm = new byte[y], rm = new byte[y];
+
+	for (Range r : ranges){
+
+	    out.printf("@@ %s%n",r);
+
+	    byte[] ac = slice(a,r);
+	    byte[] bc = slice(b,r);
+
+	    for (int x = 0; x < r.length; x += Printer.LINE){
+
+		int e = Math.min(r.length,(x+Printer.LINE));
+
+		int ln = (x < ac.length)?(p.line(ac,x,Math.min(e,ac.length),(a.offset()+r.offset+x),lm,0)):(0);
+		int rn = (x < bc.length)?(p.line(bc,x,Math.min(e,bc.length),(b.offset()+r.offset+x),rm,0)):(0);
+
+		ln = trim(lm,ln);
+		rn = trim(rm,rn);
+
+		out.write(lm,0,ln);
+		for (int c = ln; c < (y-2); c++){
+		    out.write(' ');
+		}
+		out.print(" | ");
+		out.write(rm,0,rn);
+		out.println();
+	    }
+	}
+    }
+    /**
+     * @return Region of range within argument, as available
+     */
+    private static byte[] slice(RandomAccessBuffer r, Range g){
+
+	int q = Math.min(g.length,(r.available()-g.offset));
+	if (0 < q){
+
+	    return r.copy(r.offset()+g.offset,q);
+	}
+	else {
+	    return new byte[0];
+	}
+    }
+    /**
+     * @return Length excluding line terminator
+     */
+    private static int trim(byte[] m, int n){
+
+	while (0 < n && ('\n' == m[n-1] || '\r' == m[n-1])){
+	    n -= 1;
+	}
+	return n;
+    }
+}
@@ -0,0 +1,830 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.zip.Checksum;
+
+/**
+ * Edit layer over an immutable source {@link Buffer}.
+ * 
+ * The edited view is a sequence of pieces, each referencing a region
+ * of either the source buffer or the (append only) edit buffer
+ * inherited from {@link Buffer}.  Pieces are held in a tree ordered
+ * by position and balanced by random priority, so that insert,
+ * delete, and overwrite are logarithmic in the number of pieces.  The
+ * source bytes are never copied or modified.
+ * 
+ * The inherited {@link Buffer#length length} is the length of the
+ * edited view, which is the internal coordinate space of the {@link
+ * Window} employed over this buffer.
+ * 
+ * @see RandomAccessEditor
+ */
+public class Editor
+    extends Buffer
+{
+    /**
+     * Region of the edited view.
+     */
+    protected final static class Piece {
+	/**
+	 * Region of {@link Editor#buffer} rather than {@link
+	 * Editor#source}.
+	 */
+	public final boolean edit;
+	/**
+	 * Index of region in store.
+	 */
+	public final int start;
+	/**
+	 * Count of region in store, extended by a write continuing
+	 * the edit buffer.
+	 */
+	public int length;
+
+	protected final int priority;
+
+	protected Piece left, right;
+	/**
+	 * Sum of lengths over this subtree.
+	 */
+	protected int size;
+
+
+	protected Piece(boolean edit, int start, int length, int priority){
+	    super();
+	    this.edit = edit;
+	    this.start = start;
+	    this.length = length;
+	    this.priority = priority;
+	    this.size = length;
+	}
+    }
+
+
+    /**
+     * Immutable source content.
+     */
+    protected final Buffer source;
+    /**
+     * Content of edit buffer.
+     */
+    protected int added;
+
+    protected Piece root;
+    /**
+     * Split results.
+     */
+    private Piece l, r;
+    /**
+     * Piece priority generator (xorshift).
+     */
+    private int seed = 0x2545F491;
+
+
+    /**
+     * @param source Immutable source content
+     * @param w Source region, where an open window extends to the
+     * length of the source.
+     */
+    public Editor(Buffer source, Window w){
+	super(new Printer.Configuration(source.offset,source.content));
+	this.source = source;
+
+	int ofs = w.delta;
+	int len = (0 < w.length)?(w.length):(source.length-ofs);
+
+	if (-1 < ofs && -1 < len && (ofs+len) <= source.length){
+
+	    if (0 < len){
+
+		this.root = this.piece(false,ofs,len);
+	    }
+	    this.length = len;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("ofs %d, len %d",ofs,len));
+	}
+    }
+
+
+    /**
+     * Insert into the edited view at external offset.
+     */
+    public boolean insert(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (-1 < i && i <= this.length && 0 < l){
+
+	    this.split(this.root,i);
+	    Piece a = this.l, c = this.r;
+
+	    this.root = merge(this.extend(a,b,o,l),c);
+	    this.length += l;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Delete from the edited view at external offset.
+     */
+    public boolean delete(Window w, State s, int x, int q){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    this.remove(i,q);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Replace content of the edited view at external offset,
+     * extending the view when the argument exceeds its length.
+     */
+    public boolean overwrite(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (-1 < i && i <= this.length && 0 < l){
+
+	    this.replace(i,b,o,l);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean bounds(Window w, int i){
+
+	if (-1 < i){
+
+	    return (i < this.length && w.bounds(i));
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean bounds(Window w, int i, int q){
+
+	if (-1 < i && 0 < q){
+
+	    return ((i+q) <= this.length && w.bounds(i,q));
+	}
+	else {
+	    return false;
+	}
+    }
+    public int read(Window w, State s){
+
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    s.external += 1;
+
+	    return this.byteAt(i);
+	}
+	else {
+	    return -1;
+	}
+    }
+    public int read(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+	int q = Math.min(l,this.available(w,s));
+
+	if (this.bounds(w,i,q)){
+
+	    s.external += q;
+
+	    this.copy(this.root,i,(i+q),b,o);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, PrintStream out){
+
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+
+	    this.copy(this.root,i,(i+q),b,0);
+
+	    p.print(b,0,q,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, WritableByteChannel out)
+	throws IOException
+    {
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+
+	    this.copy(this.root,i,(i+q),b,0);
+
+	    p.print(b,0,q,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean write(Window w, State s, int b){
+
+	int i = this.internal(w,s);
+
+	if (-1 < i && i <= this.length){
+
+	    this.replace(i,new byte[]{(byte)(b & 0xFF)},0,1);
+
+	    s.external += 1;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean write(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+
+	if (-1 < i && i <= this.length && 0 < l){
+
+	    this.replace(i,b,o,l);
+
+	    s.external += l;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Stream the edited view from the I/O pointer without
+     * incrementing it, writing each piece from its store.
+     */
+    public int copy(Window w, State s, OutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    this.copy(this.root,i,(i+q),out);
+
+	    return q;
+	}
+	else {
+	    return 0;
+	}
+    }
+    public byte[] copy(Window w, State s, int x, int q)
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+	    {
+		this.copy(this.root,i,(i+q),b,0);
+	    }
+	    return b;
+	}
+	else {
+	    return null;
+	}
+    }
+    public int copy(Window w, State s, int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    this.copy(this.root,i,(i+q),out);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    /**
+     * Update checksum over region, piece by piece.
+     */
+    public boolean update(Window w, State s, int x, int q, Checksum c){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    this.update(this.root,i,(i+q),c);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public int get(Window w, State s, int x){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    return this.byteAt(i);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, int v){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    this.replace(i,new byte[]{(byte)(v & 0xFF)},0,1);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,l)){
+
+	    this.replace(i,b,o,l);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,l));
+	}
+    }
+    /**
+     * The edited view has no contiguous representation.
+     */
+    public boolean clear(Window w, State s){
+
+	return false;
+    }
+    public int direct(Window w, State s, int x, int q){
+
+	return -1;
+    }
+    public int indexOf(Window w, State s, int c){
+
+	int x = s.external;
+	int i = this.internal(w,s);
+
+	while (i < this.length){
+
+	    if (c == this.byteAt(i)){
+
+		return x;
+	    }
+	    else {
+		i++; x++;
+	    }
+	}
+	return -1;
+    }
+    public String substring(Window w, State s, int o, int l, Charset cs){
+
+	byte[] b = this.bytes(w,s,o,l);
+
+	return new String(b,0,b.length,cs);
+    }
+    public String substring(Window w, State s, int o, int l, Intern cache){
+
+	byte[] b = this.bytes(w,s,o,l);
+
+	return cache.intern(b,0,b.length);
+    }
+    /**
+     * @return Copy of edited view region
+     */
+    private byte[] bytes(Window w, State s, int o, int l){
+
+	int i = this.internal(w,s,o);
+	int q = Math.min(l,this.available(w,s));
+
+	if (0 < q && this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+
+	    this.copy(this.root,i,(i+q),b,0);
+
+	    return b;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public boolean equals(Window w, State s, int o, byte[] p){
+
+	int i = this.internal(w,s,o);
+	int q = p.length;
+
+	if (this.bounds(w,i,q)){
+
+	    for (int cc = 0; cc < q; cc++){
+
+		if (p[cc] != this.byteAt(i+cc)){
+
+		    return false;
+		}
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * @return Number of pieces in the edited view
+     */
+    public int pieces(){
+
+	return count(this.root);
+    }
+    /**
+     * Overwrite in place, extending the view past its end.
+     */
+    protected void replace(int i, byte[] b, int o, int l){
+
+	int q = Math.min(l,(this.length-i));
+	if (0 < q){
+
+	    this.remove(i,q);
+	}
+
+	this.split(this.root,i);
+	Piece a = this.l, c = this.r;
+
+	this.root = merge(this.extend(a,b,o,l),c);
+	this.length += l;
+    }
+    protected void remove(int i, int q){
+
+	this.split(this.root,i);
+	Piece a = this.l;
+
+	this.split(this.r,q);
+	Piece c = this.r;
+
+	this.root = merge(a,c);
+	this.length -= q;
+    }
+    /**
+     * Append argument to the subtree.  When the last piece of the
+     * subtree ends the edit buffer, as for a sequential write, the
+     * piece is extended over the copy rather than adding a piece.
+     * 
+     * @return Subtree followed by the argument
+     */
+    protected Piece extend(Piece a, byte[] b, int o, int l){
+
+	Piece t = a;
+	while (null != t && null != t.right){
+
+	    t = t.right;
+	}
+
+	if (null != t && t.edit && (t.start+t.length) == this.added){
+
+	    this.add(b,o,l);
+
+	    t.length += l;
+
+	    for (Piece s = a; null != s; s = s.right){
+
+		s.size += l;
+	    }
+	    return a;
+	}
+	else {
+	    return merge(a,this.append(b,o,l));
+	}
+    }
+    /**
+     * Copy argument into the edit buffer.
+     * 
+     * @return New piece over the copy
+     */
+    protected Piece append(byte[] b, int o, int l){
+
+	return this.piece(true,this.add(b,o,l),l);
+    }
+    /**
+     * Copy argument into the edit buffer.
+     * 
+     * @return Index of the copy in the edit buffer
+     */
+    private int add(byte[] b, int o, int l){
+
+	int x = this.added;
+	int z = (x+l);
+
+	if (z > this.buffer.length){
+
+	    this.grow(ceil(z-this.buffer.length));
+	}
+
+	System.arraycopy(b,o,this.buffer,x,l);
+
+	this.added = z;
+
+	return x;
+    }
+    protected Piece piece(boolean edit, int start, int length){
+
+	int x = this.seed;
+	x ^= (x << 13);
+	x ^= (x >>> 17);
+	x ^= (x << 5);
+	this.seed = x;
+
+	return new Piece(edit,start,length,x);
+    }
+    protected final byte[] store(Piece p){
+
+	return (p.edit)?(this.buffer):(this.source.buffer);
+    }
+    /**
+     * @param i Internal offset within {@link #length}
+     */
+    protected final int byteAt(int i){
+
+	Piece t = this.root;
+
+	while (null != t){
+
+	    int ls = size(t.left);
+
+	    if (i < ls){
+
+		t = t.left;
+	    }
+	    else {
+		i -= ls;
+
+		if (i < t.length){
+
+		    return (this.store(t)[t.start+i] & 0xFF);
+		}
+		else {
+		    i -= t.length;
+
+		    t = t.right;
+		}
+	    }
+	}
+	throw new IllegalStateException();
+    }
+    /**
+     * Copy view range {@code [x,z)} of subtree to array.
+     */
+    protected final int copy(Piece t, int x, int z, byte[] b, int o){
+
+	if (null != t && x < z){
+
+	    int ls = size(t.left);
+	    int rs = (ls+t.length);
+
+	    if (x < ls){
+
+		o = this.copy(t.left,x,Math.min(z,ls),b,o);
+	    }
+
+	    int px = Math.max(x,ls);
+	    int pz = Math.min(z,rs);
+
+	    if (px < pz){
+
+		System.arraycopy(this.store(t),(t.start+px-ls),b,o,(pz-px));
+
+		o += (pz-px);
+	    }
+
+	    if (z > rs){
+
+		o = this.copy(t.right,Math.max(0,(x-rs)),(z-rs),b,o);
+	    }
+	}
+	return o;
+    }
+    /**
+     * Write view range {@code [x,z)} of subtree to stream.
+     */
+    protected final void copy(Piece t, int x, int z, OutputStream out)
+	throws IOException
+    {
+	if (null != t && x < z){
+
+	    int ls = size(t.left);
+	    int rs = (ls+t.length);
+
+	    if (x < ls){
+
+		this.copy(t.left,x,Math.min(z,ls),out);
+	    }
+
+	    int px = Math.max(x,ls);
+	    int pz = Math.min(z,rs);
+
+	    if (px < pz){
+
+		out.write(this.store(t),(t.start+px-ls),(pz-px));
+	    }
+
+	    if (z > rs){
+
+		this.copy(t.right,Math.max(0,(x-rs)),(z-rs),out);
+	    }
+	}
+    }
+    /**
+     * Write view range {@code [x,z)} of subtree to stream.
+     */
+    protected final void copy(Piece t, int x, int z, LocationOutputStream out)
+	throws IOException
+    {
+	if (null != t && x < z){
+
+	    int ls = size(t.left);
+	    int rs = (ls+t.length);
+
+	    if (x < ls){
+
+		this.copy(t.left,x,Math.min(z,ls),out);
+	    }
+
+	    int px = Math.max(x,ls);
+	    int pz = Math.min(z,rs);
+
+	    if (px < pz){
+
+		out.write(this.store(t),(t.start+px-ls),(pz-px));
+	    }
+
+	    if (z > rs){
+
+		this.copy(t.right,Math.max(0,(x-rs)),(z-rs),out);
+	    }
+	}
+    }
+    /**
+     * Update checksum over view range {@code [x,z)} of subtree.
+     */
+    protected final void update(Piece t, int x, int z, Checksum c){
+
+	if (null != t && x < z){
+
+	    int ls = size(t.left);
+	    int rs = (ls+t.length);
+
+	    if (x < ls){
+
+		this.update(t.left,x,Math.min(z,ls),c);
+	    }
+
+	    int px = Math.max(x,ls);
+	    int pz = Math.min(z,rs);
+
+	    if (px < pz){
+
+		c.update(this.store(t),(t.start+px-ls),(pz-px));
+	    }
+
+	    if (z > rs){
+
+		this.update(t.right,Math.max(0,(x-rs)),(z-rs),c);
+	    }
+	}
+    }
+    /**
+     * Partition subtree into {@link #l} having the first {@code x}
+     * bytes and {@link #r} having the remainder.
+     */
+    private void split(Piece t, int x){
+
+	if (null == t){
+
+	    this.l = null;
+	    this.r = null;
+	}
+	else {
+	    int ls = size(t.left);
+	    int rs = (ls+t.length);
+
+	    if (x <= ls){
+
+		this.split(t.left,x);
+		t.left = this.r;
+		update(t);
+		this.r = t;
+	    }
+	    else if (x >= rs){
+
+		this.split(t.right,(x-rs));
+		t.right = this.l;
+		update(t);
+		this.l = t;
+	    }
+	    else {
+		int k = (x-ls);
+
+		Piece a = this.piece(t.edit,t.start,k);
+		Piece b = this.piece(t.edit,(t.start+k),(t.length-k));
+
+		this.l = merge(t.left,a);
+		this.r = merge(b,t.right);
+	    }
+	}
+    }
+    private static Piece merge(Piece a, Piece b){
+
+	if (null == a)
+	    return b;
+	else if (null == b)
+	    return a;
+	else if (a.priority > b.priority){
+
+	    a.right = merge(a.right,b);
+	    update(a);
+	    return a;
+	}
+	else {
+	    b.left = merge(a,b.left);
+	    update(b);
+	    return b;
+	}
+    }
+    private static void update(Piece t){
+
+	t.size = (size(t.left)+t.length+size(t.right));
+    }
+    private static int size(Piece t){
+
+	return (null != t)?(t.size):(0);
+    }
+    private static int count(Piece t){
+
+	return (null != t)?(count(t.left)+1+count(t.right)):(0);
+    }
+}
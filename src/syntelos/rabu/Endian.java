@@ -67,5 +67,233 @@ public enum Endian {
 	    throw new InternalError(this.name());
 	}
     }
+    public long sint64(byte[] m, int o){
+
+	switch(this){
+	case LE:
+	    return (((m[o+7] & 0xFFL) << 56)|((m[o+6] & 0xFFL) << 48)|((m[o+5] & 0xFFL) << 40)|((m[o+4] & 0xFFL) << 32)|
+		    ((m[o+3] & 0xFFL) << 24)|((m[o+2] & 0xFFL) << 16)|((m[o+1] & 0xFFL) << 8)|(m[o] & 0xFFL));
+
+	case BE:
+	    return (((m[o] & 0xFFL) << 56)|((m[o+1] & 0xFFL) << 48)|((m[o+2] & 0xFFL) << 40)|((m[o+3] & 0xFFL) << 32)|
+		    ((m[o+4] & 0xFFL) << 24)|((m[o+5] & 0xFFL) << 16)|((m[o+6] & 0xFFL) << 8)|(m[o+7] & 0xFFL));
+
+	default:
+	    throw new InternalError(this.name());
+	}
+    }
+    public void uint16(byte[] m, int o, int v){
+
+	switch(this){
+	case LE:
+	    m[o] = (byte)(v & 0xFF);
+	    m[o+1] = (byte)((v >>> 8) & 0xFF);
+	    break;
+	case BE:
+	    m[o] = (byte)((v >>> 8) & 0xFF);
+	    m[o+1] = (byte)(v & 0xFF);
+	    break;
+	default:
+	    throw new InternalError(this.name());
+	}
+    }
+    public void sint32(byte[] m, int o, int v){
+
+	switch(this){
+	case LE:
+	    m[o] = (byte)(v & 0xFF);
+	    m[o+1] = (byte)((v >>> 8) & 0xFF);
+	    m[o+2] = (byte)((v >>> 16) & 0xFF);
+	    m[o+3] = (byte)((v >>> 24) & 0xFF);
+	    break;
+	case BE:
+	    m[o] = (byte)((v >>> 24) & 0xFF);
+	    m[o+1] = (byte)((v >>> 16) & 0xFF);
+	    m[o+2] = (byte)((v >>> 8) & 0xFF);
+	    m[o+3] = (byte)(v & 0xFF);
+	    break;
+	default:
+	    throw new InternalError(this.name());
+	}
+    }
+    public void sint64(byte[] m, int o, long v){
+
+	switch(this){
+	case LE:
+	    for (int c = 0; c < 8; c++){
+		m[o+c] = (byte)((v >>> (c << 3)) & 0xFF);
+	    }
+	    break;
+	case BE:
+	    for (int c = 0; c < 8; c++){
+		m[o+7-c] = (byte)((v >>> (c << 3)) & 0xFF);
+	    }
+	    break;
+	default:
+	    throw new InternalError(this.name());
+	}
+    }
+
+    public int uint8(byte[] m, int o){
+
+	return (m[o] & 0xFF);
+    }
+    public int sint8(byte[] m, int o){
+
+	return m[o];
+    }
+    public int sint16(byte[] m, int o){
+
+	return (short)this.uint16(m,o);
+    }
+    public long uint32(byte[] m, int o){
+
+	return (this.sint32(m,o) & 0xFFFFFFFFL);
+    }
+    /**
+     * Same bits as {@link #sint64(byte[],int)}, as unsigned in {@link
+     * Long#compareUnsigned(long,long)} and {@link
+     * Long#toUnsignedString(long)}.
+     */
+    public long uint64(byte[] m, int o){
+
+	return this.sint64(m,o);
+    }
+    /**
+     * IEEE 754 binary16
+     */
+    public float float16(byte[] m, int o){
+
+	return float16ToFloat(this.uint16(m,o));
+    }
+    /**
+     * IEEE 754 binary32
+     */
+    public float float32(byte[] m, int o){
+
+	return Float.intBitsToFloat(this.sint32(m,o));
+    }
+    /**
+     * IEEE 754 binary64
+     */
+    public double float64(byte[] m, int o){
+
+	return Double.longBitsToDouble(this.sint64(m,o));
+    }
+    public void uint8(byte[] m, int o, int v){
+
+	m[o] = (byte)(v & 0xFF);
+    }
+    public void sint8(byte[] m, int o, int v){
+
+	m[o] = (byte)(v & 0xFF);
+    }
+    public void sint16(byte[] m, int o, int v){
+
+	this.uint16(m,o,v);
+    }
+    public void uint32(byte[] m, int o, long v){
+
+	this.sint32(m,o,(int)v);
+    }
+    public void uint64(byte[] m, int o, long v){
+
+	this.sint64(m,o,v);
+    }
+    public void float16(byte[] m, int o, float v){
+
+	this.uint16(m,o,floatToFloat16(v));
+    }
+    public void float32(byte[] m, int o, float v){
+
+	this.sint32(m,o,Float.floatToRawIntBits(v));
+    }
+    public void float64(byte[] m, int o, double v){
+
+	this.sint64(m,o,Double.doubleToRawLongBits(v));
+    }
+    /**
+     * @param h IEEE 754 binary16 in the low sixteen bits
+     * @return Exact value
+     */
+    public static float float16ToFloat(int h){
+
+	int s = ((h & 0x8000) << 16);
+	int e = ((h >>> 10) & 0x1F);
+	int f = (h & 0x3FF);
+
+	if (0 == e){
+	    /*
+	     * Zero and subnormal
+	     */
+	    float v = (f * 0x1p-24f);
+
+	    return (0 == s)?(v):(-v);
+	}
+	else if (0x1F == e){
+	    /*
+	     * Infinity and NaN
+	     */
+	    return Float.intBitsToFloat(s|0x7F800000|(f << 13));
+	}
+	else {
+	    return Float.intBitsToFloat(s|((e+112) << 23)|(f << 13));
+	}
+    }
+    /**
+     * @param v Value rounded to nearest, ties to even
+     * @return IEEE 754 binary16 in the low sixteen bits
+     */
+    public static int floatToFloat16(float v){
+
+	int b = Float.floatToRawIntBits(v);
+	int s = ((b >>> 16) & 0x8000);
+	int e = ((b >>> 23) & 0xFF);
+	int f = (b & 0x7FFFFF);
+
+	if (0xFF == e){
+	    /*
+	     * NaN keeps its payload, which is quiet when truncated to
+	     * zero
+	     */
+	    int p = (f >>> 13);
+
+	    return (s|0x7C00|((0 != f)?((0 != p)?(p):(0x200)):(0)));
+	}
+	int he = (e-112);
+	if (0x1F <= he){
+
+	    return (s|0x7C00);
+	}
+	else if (0 >= he){
+	    /*
+	     * Zero and subnormal
+	     */
+	    if (-10 > he){
+
+		return s;
+	    }
+	    int m = (f|0x800000);
+	    int shift = (14-he);
+	    int r = (m >>> shift);
+	    int rem = (m & ((1 << shift)-1));
+	    int half = (1 << (shift-1));
+	    if (rem > half || (rem == half && 0 != (r & 1))){
+		r += 1;
+	    }
+	    return (s|r);
+	}
+	else {
+	    int r = ((he << 10)|(f >>> 13));
+	    int rem = (f & 0x1FFF);
+	    if (rem > 0x1000 || (rem == 0x1000 && 0 != (r & 1))){
+		/*
+		 * Carry may round to infinity
+		 */
+		r += 1;
+	    }
+	    return (s|r);
+	}
+    }
 
 }
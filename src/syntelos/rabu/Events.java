@@ -0,0 +1,157 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder events.
+ * 
+ * Each recording site constructs its event and tests {@link
+ * Event#isEnabled() isEnabled} before filling and committing it, so
+ * the cost is nil without a recording having these events enabled.
+ * 
+ * @see Metrics
+ */
+public final class Events
+    extends Object
+{
+    /**
+     * Emitted by {@link Buffer#grow(int)}.
+     */
+    @Name("syntelos.rabu.Grow")
+    @Label("Buffer Grow")
+    @Category({"rabu","Buffer"})
+    @Description("Reallocation of a buffer array")
+    public final static class Grow
+	extends Event
+    {
+	@Label("Previous Capacity")
+	@DataAmount
+	public int previous;
+
+	@Label("Capacity")
+	@DataAmount
+	public int capacity;
+
+	@Label("Copied")
+	@DataAmount
+	public int copied;
+    }
+    /**
+     * Emitted by {@link RandomAccessFile#read(java.io.File)} and
+     * {@link RandomAccessFile#load(java.nio.file.Path)}.
+     */
+    @Name("syntelos.rabu.FileRead")
+    @Label("File Read")
+    @Category({"rabu","File"})
+    public final static class FileRead
+	extends Event
+    {
+	@Label("Path")
+	public String path;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+    }
+    /**
+     * Emitted by {@link RandomAccessFile#write(java.io.File)} and
+     * {@link RandomAccessFile#store(java.nio.file.Path)}.
+     */
+    @Name("syntelos.rabu.FileWrite")
+    @Label("File Write")
+    @Category({"rabu","File"})
+    public final static class FileWrite
+	extends Event
+    {
+	@Label("Path")
+	public String path;
+
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+    }
+    /**
+     * Emitted for each component parsed, by {@link Chunk} and
+     * {@link ChunkReader}.
+     */
+    @Name("syntelos.rabu.ComponentRead")
+    @Label("Component Read")
+    @Category({"rabu","Component"})
+    public final static class ComponentRead
+	extends Event
+    {
+	@Label("Location")
+	public long location;
+
+	@Label("Length")
+	@DataAmount
+	public long length;
+
+	@Label("Depth")
+	public int depth;
+    }
+    /**
+     * Emitted by {@link Block#write(LocationOutputStream)}.
+     */
+    @Name("syntelos.rabu.ComponentWrite")
+    @Label("Component Write")
+    @Category({"rabu","Component"})
+    public final static class ComponentWrite
+	extends Event
+    {
+	@Label("Location")
+	public long location;
+
+	@Label("Length")
+	@DataAmount
+	public long length;
+
+	@Label("Depth")
+	public int depth;
+
+	@Label("Dirty")
+	public boolean dirty;
+    }
+
+
+    /**
+     * @return Count of ancestors
+     */
+    public static int depth(Component c){
+
+	int depth = 0;
+
+	for (Container p = c.parent(); null != p; p = p.parent()){
+
+	    depth += 1;
+	}
+	return depth;
+    }
+
+
+    private Events(){
+	super();
+    }
+}
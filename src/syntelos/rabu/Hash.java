@@ -0,0 +1,84 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Checksum and hash over a window of a {@link RandomAccessBuffer
+ * rabu}, computed in place without copying.
+ * 
+ * Offsets are external, and have no effect on the I/O pointer.
+ * 
+ * @see ChecksumOutput
+ */
+public final class Hash
+    extends Object
+{
+
+    private Hash(){
+	super();
+    }
+
+
+    /**
+     * @return Updated checksum
+     * @exception IllegalArgumentException Region out of bounds
+     */
+    public static <C extends Checksum> C update(C c, RandomAccessBuffer r, int x, int q){
+
+	if (r.update(c,x,q)){
+
+	    return c;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+    /**
+     * Castagnoli CRC, as in iSCSI and ext4.
+     */
+    public static int crc32c(RandomAccessBuffer r, int x, int q){
+
+	return (int)update(new CRC32C(),r,x,q).getValue();
+    }
+    /**
+     * ISO HDLC CRC, as in PNG and ZIP.
+     */
+    public static int crc32(RandomAccessBuffer r, int x, int q){
+
+	return (int)update(new CRC32(),r,x,q).getValue();
+    }
+    /**
+     * Adler checksum, as in ZLIB.
+     */
+    public static int adler32(RandomAccessBuffer r, int x, int q){
+
+	return (int)update(new Adler32(),r,x,q).getValue();
+    }
+    /**
+     * XXH64 hash with seed zero.
+     */
+    public static long xxh64(RandomAccessBuffer r, int x, int q){
+
+	return update(new XXHash64(),r,x,q).getValue();
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Record offset table over a region of a {@link RandomAccessBuffer
+ * rabu}, built in a single pass.
+ * 
+ * Records are terminated by a delimiter octet, as lines by newline.
+ * The scan tests eight octets per word load for the delimiter.  The
+ * table holds the external offset of each record, so that record
+ * {@code n} is found in constant time, and records may be processed
+ * independently (in parallel) as {@link #record(RandomAccessBuffer,int)
+ * windows}.
+ * 
+ * The table may be stored alongside its source, and loaded in place
+ * of the scan.  The stored table records the length of its source
+ * buffer and the {@link XXHash64 hash} of its region, so that a
+ * loaded table is {@link #valid(RandomAccessBuffer) validated}
+ * against its source before use.
+ */
+public final class Index
+    extends Object
+{
+    private final static int MAGIC = 0x52494459;
+
+    private final static VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+
+    private final static long LO7 = 0x7F7F7F7F7F7F7F7FL;
+
+    private final static long ONES = 0x0101010101010101L;
+
+
+    /**
+     * Delimiter octet
+     */
+    public final int delimiter;
+    /**
+     * External region from (inclusive) to (exclusive)
+     */
+    public final int from, to;
+    /**
+     * Region ends with the delimiter
+     */
+    public final boolean terminated;
+    /**
+     * Length of source buffer
+     */
+    public final int source;
+    /**
+     * Hash of source region
+     */
+    public final long hash;
+
+    private final int[] offsets;
+
+
+    private Index(int delimiter, int from, int to, boolean terminated, int source, long hash, int[] offsets){
+	super();
+	this.delimiter = delimiter;
+	this.from = from;
+	this.to = to;
+	this.terminated = terminated;
+	this.source = source;
+	this.hash = hash;
+	this.offsets = offsets;
+    }
+
+
+    /**
+     * @return Count of records
+     */
+    public int count(){
+
+	return this.offsets.length;
+    }
+    /**
+     * @return External offset of record
+     */
+    public int start(int n){
+
+	return this.offsets[n];
+    }
+    /**
+     * @return Length of record excluding its delimiter
+     */
+    public int length(int n){
+
+	if ((n+1) < this.offsets.length){
+
+	    return (this.offsets[n+1]-this.offsets[n]-1);
+	}
+	else if (this.terminated){
+
+	    return (this.to-this.offsets[n]-1);
+	}
+	else {
+	    return (this.to-this.offsets[n]);
+	}
+    }
+    /**
+     * @return Record content as new I/O pointer over the argument
+     * buffer, or null for an empty record
+     */
+    public RandomAccessBuffer record(RandomAccessBuffer r, int n){
+
+	int q = this.length(n);
+	if (0 < q){
+
+	    return new RandomAccessBuffer(r,new Window(r.window.internal(this.offsets[n]),q));
+	}
+	else {
+	    return null;
+	}
+    }
+    /**
+     * A loaded table describes the argument when the source length
+     * and the hash of the region are unchanged.
+     * 
+     * @param r Source buffer
+     * @return Table applies to source
+     */
+    public boolean valid(RandomAccessBuffer r){
+
+	if (this.source == r.length()){
+	    try {
+		return (this.hash == hash(r,this.from,(this.to-this.from)));
+	    }
+	    catch (IllegalArgumentException exc){
+
+		return false;
+	    }
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Persist table.
+     */
+    public void write(OutputStream out)
+	throws IOException
+    {
+	DataOutputStream dout = new DataOutputStream(out);
+
+	dout.writeInt(MAGIC);
+	dout.writeInt(this.delimiter);
+	dout.writeInt(this.from);
+	dout.writeInt(this.to);
+	dout.writeBoolean(this.terminated);
+	dout.writeInt(this.source);
+	dout.writeLong(this.hash);
+	dout.writeInt(this.offsets.length);
+
+	for (int o : this.offsets){
+
+	    dout.writeInt(o);
+	}
+	dout.flush();
+    }
+    /**
+     * Load persistent table.  Record offsets are increasing, and
+     * within the region.  A table loaded for an existing source is
+     * {@link #valid(RandomAccessBuffer) validated} before use.
+     * 
+     * @exception IOException Malformed table
+     */
+    public static Index read(InputStream in)
+	throws IOException
+    {
+	DataInputStream din = new DataInputStream(in);
+
+	if (MAGIC != din.readInt()){
+
+	    throw new IOException("index format");
+	}
+	int delimiter = din.readInt();
+	int from = din.readInt();
+	int to = din.readInt();
+	boolean terminated = din.readBoolean();
+	int source = din.readInt();
+	long hash = din.readLong();
+	int count = din.readInt();
+
+	if (0 > from || from > to || to > source){
+
+	    throw new IOException(String.format("index from: %d, to: %d, source: %d",from,to,source));
+	}
+	else if (0 > count || count > (to-from) || (0 == count) != (from == to)){
+
+	    throw new IOException(String.format("index count: %d",count));
+	}
+	int[] offsets = new int[count];
+
+	for (int cc = 0, last = (from-1); cc < count; cc++){
+
+	    int o = din.readInt();
+
+	    if (o <= last || o >= to || (0 == cc && o != from)){
+
+		throw new IOException(String.format("index record: %d, offset: %d",cc,o));
+	    }
+	    offsets[cc] = o;
+	    last = o;
+	}
+	return new Index(delimiter,from,to,terminated,source,hash,offsets);
+    }
+    /**
+     * Loaded table applies to source buffer.
+     * 
+     * @param in Persistent table
+     * @param r Source buffer
+     * @exception IOException Malformed table, or changed source
+     */
+    public static Index read(InputStream in, RandomAccessBuffer r)
+	throws IOException
+    {
+	Index index = read(in);
+
+	if (index.valid(r)){
+
+	    return index;
+	}
+	else {
+	    throw new IOException("index source");
+	}
+    }
+    /**
+     * Scan from I/O pointer.
+     */
+    public static Index build(RandomAccessBuffer r, int delimiter){
+
+	int x = r.offset();
+
+	return build(r,x,r.available(),delimiter);
+    }
+    /**
+     * Scan region of external offsets.
+     * 
+     * @param r Source buffer
+     * @param x External offset of region
+     * @param q Length of region
+     * @param delimiter Record terminal octet
+     * @exception IllegalArgumentException Region out of bounds
+     */
+    public static Index build(RandomAccessBuffer r, int x, int q, int delimiter){
+
+	delimiter &= 0xFF;
+
+	if (0 == q){
+
+	    return new Index(delimiter,x,x,false,r.length(),hash(r,x,q),new int[0]);
+	}
+
+	int[] offsets = new int[0x100];
+	offsets[0] = x;
+	int count = 1;
+	int z = (x+q);
+
+	int i = r.buffer.direct(r.window,r.state,x,q);
+	if (-1 < i){
+	    /*
+	     * Word at a time
+	     */
+	    final byte[] b = r.buffer.buffer;
+	    final int d = (i-x);
+	    final long pattern = (ONES * delimiter);
+	    final int e = (i+q);
+
+	    for (; (i+8) <= e; i += 8){
+
+		long w = ((long)LONG.get(b,i)) ^ pattern;
+		/*
+		 * Exact zero octet test
+		 */
+		long t = ~((((w & LO7) + LO7) | w) | LO7);
+
+		while (0L != t){
+
+		    int n = (i+(Long.numberOfTrailingZeros(t) >>> 3)+1)-d;
+		    if (n < z){
+			if (count == offsets.length){
+			    offsets = Arrays.copyOf(offsets,(count << 1));
+			}
+			offsets[count++] = n;
+		    }
+		    t &= (t-1);
+		}
+	    }
+	    for (; i < e; i++){
+
+		if (delimiter == (b[i] & 0xFF) && (i+1-d) < z){
+		    if (count == offsets.length){
+			offsets = Arrays.copyOf(offsets,(count << 1));
+		    }
+		    offsets[count++] = (i+1-d);
+		}
+	    }
+	}
+	else {
+	    for (int n = x; n < z; n++){
+
+		if (delimiter == r.get(n) && (n+1) < z){
+		    if (count == offsets.length){
+			offsets = Arrays.copyOf(offsets,(count << 1));
+		    }
+		    offsets[count++] = (n+1);
+		}
+	    }
+	}
+	boolean terminated = (delimiter == r.get(z-1));
+
+	return new Index(delimiter,x,z,terminated,r.length(),hash(r,x,q),Arrays.copyOf(offsets,count));
+    }
+    /**
+     * @return Hash of region, including the empty region
+     */
+    private static long hash(RandomAccessBuffer r, int x, int q){
+
+	if (0 < q){
+
+	    return Hash.xxh64(r,x,q);
+	}
+	else {
+	    return new XXHash64().getValue();
+	}
+    }
+}
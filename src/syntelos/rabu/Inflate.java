@@ -0,0 +1,551 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.Checksum;
+
+/**
+ * Read only view of a compressed region of a source array,
+ * inflated on demand.
+ * 
+ * The inflated content is produced in pages as reads advance, and
+ * held in a bounded, least recently used cache.  Reading the first
+ * headers of a large compressed block inflates only the pages
+ * covering them.  Deflate has no random access, so reading behind an
+ * evicted page inflates again from the start of the stream.
+ * 
+ * The inherited {@link Buffer#length length} is the length inflated
+ * so far, and the total length is known when the stream is {@link
+ * #finished() finished}.  The {@link Window#available(State)
+ * availability} of an open window inflates to the end.  The source
+ * content must not change while referenced by this buffer.
+ * 
+ * @see RandomAccessInflate
+ */
+public class Inflate
+    extends Buffer
+{
+    /**
+     * Default page size.
+     */
+    public final static int PAGE = 0x10000;
+    /**
+     * Default count of cached pages.
+     */
+    public final static int PAGES = 0x10;
+
+
+    protected final Inflater inflater;
+    /**
+     * Compressed input
+     */
+    private final byte[] input;
+
+    private final int offset, count;
+
+    private final int shift, mask;
+    /**
+     * Inflated pages by index, in access order
+     */
+    private final LinkedHashMap<Integer,byte[]> cache;
+    /**
+     * Count of bytes produced by the inflater since its (re)start
+     */
+    private int position;
+    /**
+     * Count of restarts for evicted pages
+     */
+    private int restarts;
+
+
+    /**
+     * @param c Printer configuration
+     * @param input Compressed content
+     * @param x Index of compressed region
+     * @param q Length of compressed region
+     * @param nowrap Raw deflate, rather than zlib
+     * @param page Page size, a power of two
+     * @param pages Maximum count of cached pages
+     */
+    public Inflate(Printer.Configuration c, byte[] input, int x, int q, boolean nowrap, int page, int pages){
+	super(c);
+	if (-1 < x && 0 < q && (x+q) <= input.length && 0 < page && 0 == (page & (page-1)) && 0 < pages){
+
+	    this.input = input;
+	    this.offset = x;
+	    this.count = q;
+	    this.shift = Integer.numberOfTrailingZeros(page);
+	    this.mask = (page-1);
+
+	    final int max = pages;
+	    this.cache = new LinkedHashMap<Integer,byte[]>(2*pages,0.75f,true){
+		    private static final long serialVersionUID = 1L;
+
+		    protected boolean removeEldestEntry(Map.Entry<Integer,byte[]> eldest){
+			return (size() > max);
+		    }
+		};
+	    this.inflater = new Inflater(nowrap);
+	    this.inflater.setInput(this.input,x,q);
+	    this.length = 0;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+
+
+    /**
+     * @return Inflated to end of stream
+     */
+    public boolean finished(){
+
+	return this.inflater.finished();
+    }
+    /**
+     * @return Count of cached pages
+     */
+    public int pages(){
+
+	return this.cache.size();
+    }
+    /**
+     * @return Count of restarts from the start of the stream
+     */
+    public int restarts(){
+
+	return this.restarts;
+    }
+    /**
+     * Release the inflater.
+     */
+    public void end(){
+
+	this.inflater.end();
+	this.cache.clear();
+    }
+    public void grow(int q){
+
+	throw new IllegalStateException("read only");
+    }
+    public int available(Window w, State s){
+
+	int q = w.available(s);
+	if (-1 < q){
+
+	    return q;
+	}
+	else {
+	    this.inflate(Integer.MAX_VALUE);
+
+	    return (this.length-w.internal(s));
+	}
+    }
+    public boolean bounds(Window w, int i){
+
+	if (-1 < i){
+
+	    this.inflate(i+1);
+
+	    return (i < this.length && w.bounds(i));
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean bounds(Window w, int i, int q){
+
+	if (-1 < i && 0 < q){
+
+	    this.inflate(i+q);
+
+	    return ((i+q) <= this.length && w.bounds(i,q));
+	}
+	else {
+	    return false;
+	}
+    }
+    public int read(Window w, State s){
+
+	int i = this.internal(w,s);
+
+	if (this.bounds(w,i)){
+
+	    s.external += 1;
+
+	    return this.byteAt(i);
+	}
+	else {
+	    return -1;
+	}
+    }
+    public int read(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+	int q = this.readable(w,s,i,l);
+
+	if (this.bounds(w,i,q)){
+
+	    s.external += q;
+
+	    this.copy(i,(i+q),b,o);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, PrintStream out){
+
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, WritableByteChannel out)
+	throws IOException
+    {
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean write(Window w, State s, int b){
+
+	return false;
+    }
+    public boolean write(Window w, State s, byte[] b, int o, int l){
+
+	return false;
+    }
+    /**
+     * Stream the inflated content from the I/O pointer without
+     * incrementing it, page by page.
+     */
+    public int copy(Window w, State s, OutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s);
+	int q = this.available(w,s);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int x = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-x));
+
+		out.write(this.page(i >>> this.shift),x,n);
+
+		i += n;
+	    }
+	    return q;
+	}
+	else {
+	    return 0;
+	}
+    }
+    public byte[] copy(Window w, State s, int x, int q)
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+	    {
+		this.copy(i,(i+q),b,0);
+	    }
+	    return b;
+	}
+	else {
+	    return null;
+	}
+    }
+    public int copy(Window w, State s, int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		out.write(this.page(i >>> this.shift),o,n);
+
+		i += n;
+	    }
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean update(Window w, State s, int x, int q, Checksum c){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		c.update(this.page(i >>> this.shift),o,n);
+
+		i += n;
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public int get(Window w, State s, int x){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    return this.byteAt(i);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, int v){
+
+	throw new IllegalStateException("read only");
+    }
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	throw new IllegalStateException("read only");
+    }
+    /**
+     * The inflated content has no contiguous representation.
+     */
+    public boolean clear(Window w, State s){
+
+	return false;
+    }
+    public int direct(Window w, State s, int x, int q){
+
+	return -1;
+    }
+    public int indexOf(Window w, State s, int c){
+
+	int x = s.external;
+	int i = this.internal(w,s);
+
+	while (this.bounds(w,i)){
+
+	    if (c == this.byteAt(i)){
+
+		return x;
+	    }
+	    else {
+		i++; x++;
+	    }
+	}
+	return -1;
+    }
+    public String substring(Window w, State s, int o, int l, Charset cs){
+
+	byte[] b = this.copy(w,s,o,this.readable(w,s,this.internal(w,s,o),l));
+	if (null != b){
+
+	    return new String(b,0,b.length,cs);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public String substring(Window w, State s, int o, int l, Intern cache){
+
+	byte[] b = this.copy(w,s,o,this.readable(w,s,this.internal(w,s,o),l));
+	if (null != b){
+
+	    return cache.intern(b,0,b.length);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public boolean equals(Window w, State s, int o, byte[] p){
+
+	int i = this.internal(w,s,o);
+	int q = p.length;
+
+	if (this.bounds(w,i,q)){
+
+	    for (int cc = 0; cc < q; cc++){
+
+		if (p[cc] != (byte)this.byteAt(i+cc)){
+
+		    return false;
+		}
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Constrain a request to the window, or to the inflated content
+     * of an open window, without inflating to the end.
+     */
+    private int readable(Window w, State s, int i, int l){
+
+	int q = w.available(s);
+	if (-1 < q){
+
+	    return Math.min(l,q);
+	}
+	else {
+	    this.inflate(i+l);
+
+	    return Math.min(l,(this.length-i));
+	}
+    }
+    protected final int byteAt(int i){
+
+	return (this.page(i >>> this.shift)[i & this.mask] & 0xFF);
+    }
+    protected final void copy(int i, int z, byte[] b, int o){
+
+	while (i < z){
+
+	    int x = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-x));
+
+	    System.arraycopy(this.page(i >>> this.shift),x,b,o,n);
+
+	    i += n;
+	    o += n;
+	}
+    }
+    /**
+     * Inflate to the argument length, or to the end of the stream.
+     */
+    protected final void inflate(int z){
+
+	while (this.length < z && !this.inflater.finished()){
+
+	    this.next();
+	}
+    }
+    /**
+     * @param n Index of page within the inflated length
+     * @return Cached or inflated page
+     */
+    protected final byte[] page(int n){
+
+	byte[] p = this.cache.get(n);
+	if (null != p){
+
+	    return p;
+	}
+	else {
+	    if ((n << this.shift) < this.position){
+		/*
+		 * Evicted page
+		 */
+		this.inflater.reset();
+		this.inflater.setInput(this.input,this.offset,this.count);
+		this.position = 0;
+		this.restarts += 1;
+	    }
+	    while (true){
+
+		int k = (this.position >>> this.shift);
+
+		p = this.next();
+
+		if (k == n){
+
+		    return p;
+		}
+		else if (this.inflater.finished()){
+
+		    throw new IllegalArgumentException(String.valueOf(n << this.shift));
+		}
+	    }
+	}
+    }
+    /**
+     * Inflate and cache the page at the inflater position.
+     */
+    private byte[] next(){
+
+	int size = (this.mask+1);
+	int n = 0;
+	byte[] p = new byte[size];
+	try {
+	    while (n < size && !this.inflater.finished()){
+
+		int r = this.inflater.inflate(p,n,(size-n));
+		if (0 == r && !this.inflater.finished() &&
+		    (this.inflater.needsInput() || this.inflater.needsDictionary()))
+		{
+
+		    throw new IllegalArgumentException(String.format("inflate truncated at %d",(this.position+n)));
+		}
+		n += r;
+	    }
+	}
+	catch (DataFormatException exc){
+
+	    throw new IllegalArgumentException(String.format("inflate at %d",(this.position+n)),exc);
+	}
+	this.cache.put((this.position >>> this.shift),p);
+
+	this.position += n;
+
+	if (this.position > this.length){
+
+	    this.length = this.position;
+	}
+	return p;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded cache of strings decoded from buffer content.
+ * 
+ * The table is direct mapped, and keyed by the content bytes of a
+ * {@link Window window}.  A hit is found by hashing and comparing in
+ * place, without allocation.  A miss decodes the content and replaces
+ * the slot, so that memory is bounded by the capacity and the maximum
+ * key length.  Longer content is decoded without caching.
+ * 
+ * The cache is safe for concurrent use, as entries are immutable.
+ */
+public class Intern
+    extends Object
+{
+    /**
+     * Immutable table entry.
+     */
+    private final static class Entry {
+
+	final int hash;
+
+	final byte[] key;
+
+	final String value;
+
+
+	Entry(int hash, byte[] key, String value){
+	    super();
+	    this.hash = hash;
+	    this.key = key;
+	    this.value = value;
+	}
+    }
+
+
+    public final Charset charset;
+
+    public final int limit;
+
+    private final Entry[] table;
+
+    private final int mask;
+
+
+    /**
+     * @param capacity Table size, rounded up to a power of two
+     * @param limit Maximum content length cached
+     * @param cs Content character set
+     */
+    public Intern(int capacity, int limit, Charset cs){
+	super();
+	if (0 < capacity && 0 < limit && null != cs){
+	    int size = Integer.highestOneBit(Math.max(1,(capacity-1)) << 1);
+	    this.table = new Entry[size];
+	    this.mask = (size-1);
+	    this.limit = limit;
+	    this.charset = cs;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("capacity: %d, limit: %d",capacity,limit));
+	}
+    }
+    /**
+     * Latin-1 table of 1024 entries for keys of up to 64 bytes.
+     */
+    public Intern(){
+	this(0x400,0x40,StandardCharsets.ISO_8859_1);
+    }
+
+
+    /**
+     * @return Decoded content, shared with previous decodings of
+     * equal content while cached
+     */
+    public String intern(byte[] b, int o, int l){
+
+	if (l > this.limit){
+
+	    return new String(b,o,l,this.charset);
+	}
+	else {
+	    int h = hash(b,o,l);
+	    int x = (h & this.mask);
+
+	    Entry e = this.table[x];
+	    if (null != e && h == e.hash &&
+		Arrays.equals(e.key,0,e.key.length,b,o,(o+l)))
+	    {
+		return e.value;
+	    }
+	    else {
+		byte[] key = Arrays.copyOfRange(b,o,(o+l));
+
+		e = new Entry(h,key,new String(key,this.charset));
+
+		this.table[x] = e;
+
+		return e.value;
+	    }
+	}
+    }
+    /**
+     * Drop all entries.
+     */
+    public void clear(){
+
+	Arrays.fill(this.table,null);
+    }
+
+    private static int hash(byte[] b, int o, int l){
+
+	int h = l;
+
+	for (int z = (o+l); o < z; o++){
+
+	    h = (31*h)+b[o];
+	}
+	return (h ^ (h >>> 16));
+    }
+}
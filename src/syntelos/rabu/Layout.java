@@ -0,0 +1,359 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed structure codec over {@link RandomAccessData rada}.
+ * 
+ * A layout is described once by its {@link Builder} as a sequence of
+ * fields of a (mutable) record class, and compiled to one method
+ * handle per {@link Endian} that decodes or encodes all fields.  An
+ * operation over a structure performs one bounds check and no
+ * reflection.
+ * 
+ * <pre>
+ * Layout&lt;Header&gt; layout = new Layout.Builder&lt;Header&gt;(Header.class,MethodHandles.lookup())
+ *     .uint16("tag").uint16("flags").sint32("length").build();
+ * 
+ * Header header = layout.decode(rada,ofs,new Header());
+ * </pre>
+ */
+public final class Layout<T>
+    extends Object
+{
+    /**
+     * Field type and size in bytes.
+     */
+    public static enum Type {
+	UINT8(1,int.class),
+	UINT16(2,int.class),
+	SINT32(4,int.class),
+	SINT64(8,long.class);
+
+
+	public final int size;
+
+	public final Class<?> java;
+
+
+	Type(int size, Class<?> java){
+	    this.size = size;
+	    this.java = java;
+	}
+    }
+    /**
+     * Field of record class.
+     */
+    public static class Field {
+
+	public final Type type;
+
+	public final String name;
+	/**
+	 * Offset from structure origin.
+	 */
+	public final int offset;
+
+
+	Field(Type type, String name, int offset){
+	    super();
+	    this.type = type;
+	    this.name = name;
+	    this.offset = offset;
+	}
+    }
+    /**
+     * Layout description.
+     */
+    public static class Builder<T> {
+
+	protected final Class<T> record;
+
+	protected final MethodHandles.Lookup lookup;
+
+	protected final List<Field> fields = new ArrayList<Field>();
+
+	protected int size;
+
+	/**
+	 * @param record Record class
+	 * @param lookup Access to record fields
+	 */
+	public Builder(Class<T> record, MethodHandles.Lookup lookup){
+	    super();
+	    if (null != record && null != lookup){
+		this.record = record;
+		this.lookup = lookup;
+	    }
+	    else {
+		throw new IllegalArgumentException();
+	    }
+	}
+
+
+	public Builder<T> field(Type type, String name){
+
+	    this.fields.add(new Field(type,name,this.size));
+
+	    this.size += type.size;
+
+	    return this;
+	}
+	public Builder<T> uint8(String name){
+
+	    return this.field(Type.UINT8,name);
+	}
+	public Builder<T> uint16(String name){
+
+	    return this.field(Type.UINT16,name);
+	}
+	public Builder<T> sint32(String name){
+
+	    return this.field(Type.SINT32,name);
+	}
+	public Builder<T> sint64(String name){
+
+	    return this.field(Type.SINT64,name);
+	}
+	/**
+	 * Reserved or padding bytes.
+	 */
+	public Builder<T> skip(int count){
+
+	    if (0 < count){
+
+		this.size += count;
+
+		return this;
+	    }
+	    else {
+		throw new IllegalArgumentException(String.valueOf(count));
+	    }
+	}
+	public Layout<T> build(){
+
+	    return new Layout<T>(this);
+	}
+    }
+
+
+    public final Class<T> record;
+
+    public final Field[] fields;
+    /**
+     * Structure size in bytes.
+     */
+    public final int size;
+    /**
+     * Indexed by {@link Endian#ordinal()} with type {@code
+     * (Object,byte[],int)void}.
+     */
+    private final MethodHandle[] decode, encode;
+
+
+    private Layout(Builder<T> b){
+	super();
+	this.record = b.record;
+	this.fields = b.fields.toArray(new Field[b.fields.size()]);
+	this.size = b.size;
+
+	Endian[] endians = Endian.values();
+
+	this.decode = new MethodHandle[endians.length];
+	this.encode = new MethodHandle[endians.length];
+	try {
+	    for (Endian e : endians){
+
+		this.decode[e.ordinal()] = decoder(b.lookup,b.record,this.fields,e);
+		this.encode[e.ordinal()] = encoder(b.lookup,b.record,this.fields,e);
+	    }
+	}
+	catch (ReflectiveOperationException exc){
+
+	    throw new IllegalArgumentException(b.record.getName(),exc);
+	}
+    }
+
+
+    /**
+     * Decode structure at external offset into target.
+     */
+    public T decode(RandomAccessData d, int x, T target){
+
+	byte[] b;
+	int i = d.buffer.direct(d.window,d.state,x,this.size);
+	if (-1 < i){
+
+	    b = d.buffer.buffer;
+	}
+	else {
+	    b = d.copy(x,this.size);
+	    i = 0;
+
+	    if (null == b){
+
+		throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,this.size));
+	    }
+	}
+
+	try {
+	    this.decode[d.endian.ordinal()].invokeExact((Object)target,b,i);
+
+	    return target;
+	}
+	catch (RuntimeException|Error exc){
+	    throw exc;
+	}
+	catch (Throwable thr){
+	    throw new IllegalStateException(thr);
+	}
+    }
+    /**
+     * Encode structure from source at external offset.
+     */
+    public void encode(T source, RandomAccessData d, int x){
+
+	int i = d.buffer.writable(d.window,d.state,x,this.size);
+	try {
+	    if (-1 < i){
+
+		this.encode[d.endian.ordinal()].invokeExact((Object)source,d.buffer.buffer,i);
+	    }
+	    else {
+		byte[] b = new byte[this.size];
+
+		this.encode[d.endian.ordinal()].invokeExact((Object)source,b,0);
+
+		d.set(x,b,0,this.size);
+	    }
+	}
+	catch (RuntimeException|Error exc){
+	    throw exc;
+	}
+	catch (Throwable thr){
+	    throw new IllegalStateException(thr);
+	}
+    }
+
+
+    private final static MethodType CODEC = MethodType.methodType(void.class,Object.class,byte[].class,int.class);
+
+    private final static MethodHandle NOP, ADD, UINT8_R, UINT8_W;
+    static {
+	MethodHandles.Lookup lookup = MethodHandles.lookup();
+	try {
+	    NOP = MethodHandles.dropArguments(lookup.findStatic(Layout.class,"nop",MethodType.methodType(void.class)),
+					      0,CODEC.parameterList());
+	    ADD = lookup.findStatic(Layout.class,"add",MethodType.methodType(int.class,int.class,int.class));
+	    UINT8_R = lookup.findStatic(Layout.class,"uint8",MethodType.methodType(int.class,byte[].class,int.class));
+	    UINT8_W = lookup.findStatic(Layout.class,"uint8",MethodType.methodType(void.class,byte[].class,int.class,int.class));
+	}
+	catch (ReflectiveOperationException exc){
+	    throw new ExceptionInInitializerError(exc);
+	}
+    }
+    private static void nop(){
+    }
+    private static int add(int a, int b){
+	return (a+b);
+    }
+    private static int uint8(byte[] m, int o){
+	return (m[o] & 0xFF);
+    }
+    private static void uint8(byte[] m, int o, int v){
+	m[o] = (byte)(v & 0xFF);
+    }
+    /**
+     * @return Field reader {@code (byte[],int)} at field offset from
+     * structure index.
+     */
+    private static MethodHandle reader(Field f, Endian e)
+	throws ReflectiveOperationException
+    {
+	MethodHandle r;
+	if (Type.UINT8 == f.type){
+
+	    r = UINT8_R;
+	}
+	else {
+	    r = MethodHandles.publicLookup().findVirtual(Endian.class,f.type.name().toLowerCase(),
+							 MethodType.methodType(f.type.java,byte[].class,int.class)).bindTo(e);
+	}
+	return MethodHandles.filterArguments(r,1,MethodHandles.insertArguments(ADD,1,f.offset));
+    }
+    /**
+     * @return Field writer {@code (byte[],int,value)} at field offset
+     * from structure index.
+     */
+    private static MethodHandle writer(Field f, Endian e)
+	throws ReflectiveOperationException
+    {
+	MethodHandle w;
+	if (Type.UINT8 == f.type){
+
+	    w = UINT8_W;
+	}
+	else {
+	    w = MethodHandles.publicLookup().findVirtual(Endian.class,f.type.name().toLowerCase(),
+							 MethodType.methodType(void.class,byte[].class,int.class,f.type.java)).bindTo(e);
+	}
+	return MethodHandles.filterArguments(w,1,MethodHandles.insertArguments(ADD,1,f.offset));
+    }
+    private static MethodHandle decoder(MethodHandles.Lookup lookup, Class<?> record, Field[] fields, Endian e)
+	throws ReflectiveOperationException
+    {
+	MethodHandle chain = NOP;
+
+	for (int cc = (fields.length-1); -1 < cc; cc--){
+	    Field f = fields[cc];
+
+	    MethodHandle set = lookup.findSetter(record,f.name,f.type.java);
+
+	    set = set.asType(MethodType.methodType(void.class,Object.class,f.type.java));
+
+	    chain = MethodHandles.foldArguments(chain,MethodHandles.collectArguments(set,1,reader(f,e)));
+	}
+	return chain;
+    }
+    private static MethodHandle encoder(MethodHandles.Lookup lookup, Class<?> record, Field[] fields, Endian e)
+	throws ReflectiveOperationException
+    {
+	MethodHandle chain = NOP;
+
+	for (int cc = (fields.length-1); -1 < cc; cc--){
+	    Field f = fields[cc];
+
+	    MethodHandle get = lookup.findGetter(record,f.name,f.type.java);
+
+	    get = get.asType(MethodType.methodType(f.type.java,Object.class));
+
+	    MethodHandle put = MethodHandles.filterArguments(writer(f,e),2,get);
+
+	    put = MethodHandles.permuteArguments(put,CODEC,1,2,0);
+
+	    chain = MethodHandles.foldArguments(chain,put);
+	}
+	return chain;
+    }
+}
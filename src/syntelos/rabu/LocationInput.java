@@ -0,0 +1,168 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Location input over an octet stream counts its offset from zero.
+ * Octets {@link #unread(byte[]) unread} are read again before the
+ * stream, and their offset is restored.
+ * 
+ * @see Component#read(LocationInputStream)
+ */
+public class LocationInput
+    extends InputStream
+    implements LocationInputStream
+{
+
+    protected final InputStream in;
+
+    protected long offset;
+
+    private byte[] back = new byte[0];
+
+    private int next;
+
+    private long mark;
+
+
+    public LocationInput(InputStream in){
+	super();
+	if (null != in){
+	    this.in = in;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public long offset(){
+
+	return this.offset;
+    }
+    public void unread(byte[] buf){
+
+	int q = (this.back.length-this.next);
+	byte[] back = new byte[buf.length+q];
+
+	System.arraycopy(buf,0,back,0,buf.length);
+	System.arraycopy(this.back,this.next,back,buf.length,q);
+
+	this.back = back;
+	this.next = 0;
+	this.offset -= buf.length;
+    }
+    public int read() throws IOException {
+
+	int b;
+	if (this.next < this.back.length){
+
+	    b = (this.back[this.next++] & 0xFF);
+	}
+	else {
+	    b = this.in.read();
+	}
+	if (-1 < b){
+
+	    this.offset += 1;
+	}
+	return b;
+    }
+    public int read(byte b[], int o, int l) throws IOException {
+
+	int r;
+	int q = (this.back.length-this.next);
+	if (0 < q){
+
+	    r = Math.min(q,l);
+
+	    System.arraycopy(this.back,this.next,b,o,r);
+
+	    this.next += r;
+	}
+	else {
+	    r = this.in.read(b,o,l);
+	}
+	if (0 < r){
+
+	    this.offset += r;
+	}
+	return r;
+    }
+    public long skip(long n) throws IOException {
+
+	long s = 0;
+	int q = (this.back.length-this.next);
+	if (0 < q){
+
+	    s = Math.min(q,n);
+
+	    this.next += (int)s;
+	}
+	if (s < n){
+
+	    s += this.in.skip(n-s);
+	}
+	this.offset += s;
+
+	return s;
+    }
+    public int available() throws IOException {
+
+	return (this.back.length-this.next)+this.in.available();
+    }
+    public void close() throws IOException {
+
+	this.in.close();
+    }
+    /**
+     * Mark the stream, having no unread octets pending.
+     */
+    public void mark(int r){
+
+	if (this.next == this.back.length){
+
+	    this.in.mark(r);
+
+	    this.mark = this.offset;
+	}
+	else {
+	    throw new IllegalStateException("unread pending");
+	}
+    }
+    public void reset(){
+	try {
+	    this.in.reset();
+
+	    this.back = new byte[0];
+	    this.next = 0;
+	    this.offset = this.mark;
+	}
+	catch (IOException exc){
+
+	    throw new IllegalStateException(exc);
+	}
+    }
+    public boolean markSupported(){
+
+	return this.in.markSupported();
+    }
+}
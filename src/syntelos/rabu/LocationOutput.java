@@ -0,0 +1,73 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Location output over an octet stream counts its offset from zero.
+ * 
+ * @see Component#write(LocationOutputStream)
+ */
+public class LocationOutput
+    extends OutputStream
+    implements LocationOutputStream
+{
+
+    protected final OutputStream out;
+
+    protected long offset;
+
+
+    public LocationOutput(OutputStream out){
+	super();
+	if (null != out){
+	    this.out = out;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
+
+
+    public long offset(){
+
+	return this.offset;
+    }
+    public void write(int b) throws IOException {
+
+	this.out.write(b);
+
+	this.offset += 1;
+    }
+    public void write(byte b[], int o, int l) throws IOException {
+
+	this.out.write(b,o,l);
+
+	this.offset += l;
+    }
+    public void flush() throws IOException {
+
+	this.out.flush();
+    }
+    public void close() throws IOException {
+
+	this.out.close();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Optional instrumentation of buffer operations.
+ * 
+ * Metrics are enabled by the system property {@code
+ * syntelos.rabu.metrics=true}.  Every recording site is guarded by
+ * the constant {@link #ENABLED}, which the compiler removes when
+ * metrics are disabled.  Counters are striped ({@link LongAdder}) for
+ * concurrent recording, and latency histograms have power of two
+ * nanosecond buckets.
+ * 
+ * Read and write volumes of each {@link RandomAccessBuffer rabu} are
+ * recorded in its {@link State}.
+ * 
+ * @see MetricsMXBean
+ */
+public final class Metrics
+    extends Object
+    implements MetricsMXBean
+{
+    /**
+     * Latency histogram having power of two nanosecond buckets.
+     */
+    public final static class Histogram {
+
+	public final String name;
+
+	private final LongAdder[] buckets = new LongAdder[64];
+
+	private final LongAdder sum = new LongAdder();
+
+
+	Histogram(String name){
+	    super();
+	    this.name = name;
+	    for (int cc = 0; cc < 64; cc++){
+		this.buckets[cc] = new LongAdder();
+	    }
+	}
+
+
+	public void record(long nanos){
+
+	    this.buckets[64-Long.numberOfLeadingZeros(Math.max(0L,nanos))].increment();
+
+	    this.sum.add(nanos);
+	}
+	public long count(){
+
+	    long count = 0;
+
+	    for (LongAdder b : this.buckets){
+
+		count += b.sum();
+	    }
+	    return count;
+	}
+	public long mean(){
+
+	    long count = this.count();
+
+	    return (0 < count)?(this.sum.sum()/count):(0L);
+	}
+	/**
+	 * @param p Fraction from zero to one
+	 * @return Upper bound of bucket containing the percentile, in
+	 * nanoseconds
+	 */
+	public long percentile(double p){
+
+	    long count = this.count();
+	    long rank = (long)Math.ceil(p*count);
+	    long acc = 0;
+
+	    for (int cc = 0; cc < 64; cc++){
+
+		acc += this.buckets[cc].sum();
+
+		if (0 < acc && acc >= rank){
+
+		    return (0 == cc)?(0L):((1L << cc)-1L);
+		}
+	    }
+	    return 0L;
+	}
+	public void reset(){
+
+	    for (LongAdder b : this.buckets){
+
+		b.reset();
+	    }
+	    this.sum.reset();
+	}
+	public String toString(){
+
+	    return String.format("%s count: %d, mean: %d ns, p50: %d ns, p99: %d ns",
+				 this.name,this.count(),this.mean(),this.percentile(0.5),this.percentile(0.99));
+	}
+    }
+
+
+    public final static boolean ENABLED = Boolean.getBoolean("syntelos.rabu.metrics");
+
+    public final static Metrics INSTANCE = new Metrics();
+
+    private final static LongAdder GROW = new LongAdder(), GROW_COPY = new LongAdder(),
+	BOUNDS = new LongAdder(),
+	READ = new LongAdder(), READ_BYTES = new LongAdder(),
+	WRITE = new LongAdder(), WRITE_BYTES = new LongAdder(),
+	FILE_READ = new LongAdder(), FILE_WRITE = new LongAdder();
+
+    public final static Histogram GROW_TIME = new Histogram("grow");
+    public final static Histogram FILE_READ_TIME = new Histogram("file read");
+    public final static Histogram FILE_WRITE_TIME = new Histogram("file write");
+
+    static {
+	if (ENABLED){
+	    try {
+		ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,new ObjectName("syntelos.rabu:type=Metrics"));
+	    }
+	    catch (Exception exc){
+		/*
+		 * Recording is independent of export
+		 */
+	    }
+	}
+    }
+
+
+    private Metrics(){
+	super();
+    }
+
+
+    /**
+     * @param copied Size of buffer copied
+     */
+    static void grow(int copied, long nanos){
+	GROW.increment();
+	GROW_COPY.add(copied);
+	GROW_TIME.record(nanos);
+    }
+    static void bounds(){
+	BOUNDS.increment();
+    }
+    static void read(State s, int q){
+	READ.increment();
+	READ_BYTES.add(q);
+	s.read += q;
+    }
+    static void write(State s, int q){
+	WRITE.increment();
+	WRITE_BYTES.add(q);
+	s.wrote += q;
+    }
+    static void fileRead(long bytes, long nanos){
+	FILE_READ.add(bytes);
+	FILE_READ_TIME.record(nanos);
+    }
+    static void fileWrite(long bytes, long nanos){
+	FILE_WRITE.add(bytes);
+	FILE_WRITE_TIME.record(nanos);
+    }
+
+    public boolean isEnabled(){
+	return ENABLED;
+    }
+    public long getGrowCount(){
+	return GROW.sum();
+    }
+    public long getGrowCopied(){
+	return GROW_COPY.sum();
+    }
+    public long getBoundsFailures(){
+	return BOUNDS.sum();
+    }
+    public long getReadCount(){
+	return READ.sum();
+    }
+    public long getReadBytes(){
+	return READ_BYTES.sum();
+    }
+    public long getWriteCount(){
+	return WRITE.sum();
+    }
+    public long getWriteBytes(){
+	return WRITE_BYTES.sum();
+    }
+    public long getFileReadBytes(){
+	return FILE_READ.sum();
+    }
+    public long getFileWriteBytes(){
+	return FILE_WRITE.sum();
+    }
+    public String[] getHistograms(){
+	return new String[]{
+	    GROW_TIME.toString(),
+	    FILE_READ_TIME.toString(),
+	    FILE_WRITE_TIME.toString()
+	};
+    }
+    public void reset(){
+	for (LongAdder a : new LongAdder[]{GROW,GROW_COPY,BOUNDS,READ,READ_BYTES,WRITE,WRITE_BYTES,FILE_READ,FILE_WRITE}){
+	    a.reset();
+	}
+	GROW_TIME.reset();
+	FILE_READ_TIME.reset();
+	FILE_WRITE_TIME.reset();
+    }
+    /**
+     * Summary lines with prefix.
+     */
+    public void println(String prefix, PrintStream out){
+
+	out.printf("%s metrics grow count: %d, copied: %d, bounds failures: %d.%n",prefix,
+		   this.getGrowCount(),this.getGrowCopied(),this.getBoundsFailures());
+	out.printf("%s metrics read count: %d, bytes: %d, write count: %d, bytes: %d.%n",prefix,
+		   this.getReadCount(),this.getReadBytes(),this.getWriteCount(),this.getWriteBytes());
+	out.printf("%s metrics file read: %d, write: %d.%n",prefix,
+		   this.getFileReadBytes(),this.getFileWriteBytes());
+
+	for (String h : this.getHistograms()){
+
+	    out.printf("%s metrics %s.%n",prefix,h);
+	}
+    }
+}
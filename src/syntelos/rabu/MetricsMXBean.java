@@ -0,0 +1,51 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Management interface of {@link Metrics}, registered as {@code
+ * syntelos.rabu:type=Metrics}.
+ */
+public interface MetricsMXBean {
+
+    public boolean isEnabled();
+
+    public long getGrowCount();
+
+    public long getGrowCopied();
+
+    public long getBoundsFailures();
+
+    public long getReadCount();
+
+    public long getReadBytes();
+
+    public long getWriteCount();
+
+    public long getWriteBytes();
+
+    public long getFileReadBytes();
+
+    public long getFileWriteBytes();
+    /**
+     * @return Histogram summaries by name
+     */
+    public String[] getHistograms();
+
+    public void reset();
+}
@@ -0,0 +1,40 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+
+/**
+ * Location output that may revise bytes previously written, as to
+ * complete a header once the length of its content is known.
+ * 
+ * @see DeflateOutput
+ * @see BufferOutput
+ * @see ChannelOutput
+ */
+public interface PatchOutputStream
+    extends LocationOutputStream
+{
+    /**
+     * Overwrite previous output, without changing the output offset.
+     * 
+     * @param offset Location of previous output
+     */
+    public void patch(long offset, byte b[], int o, int l) throws IOException;
+
+}
@@ -17,7 +17,17 @@
  */
 package syntelos.rabu;
 
+import java.io.InterruptedIOException;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Following the "octal dump" (unix "od") concept into {@link Test}
@@ -178,7 +188,7 @@ public class Printer {
 	    }
 
 	    if (null != sc){
-		this.content = Content.valueOf(so.toUpperCase());
+		this.content = Content.valueOf(sc.toUpperCase());
 	    }
 	    else {
 		this.content = Content.Default;
@@ -192,11 +202,69 @@ public class Printer {
     }
 
 
+    /**
+     * Content rendering by octet value: four characters per octet
+     * for {@link Content#ASC}, and three for {@link Content#HEX}.
+     */
+    private final static byte[] ASC, HEX;
+    static {
+	ASC = new byte[0x100*4];
+	HEX = new byte[0x100*3];
+
+	for (int ch = 0; ch < 0x100; ch++){
+	    String a;
+	    ASCII as = ASCII.valueOf(ch);
+	    if (null != as){
+
+		a = String.format(" %3s",as.name());
+	    }
+	    else if (0x20 < ch && 0x7F > ch){
+
+		a = String.format(" %3c",ch);
+	    }
+	    else {
+
+		a = String.format(" %03X",ch);
+	    }
+	    for (int c = 0; c < 4; c++){
+
+		ASC[(ch*4)+c] = (byte)a.charAt(c);
+	    }
+
+	    String h = String.format(" %02X",ch);
+	    for (int c = 0; c < 3; c++){
+
+		HEX[(ch*3)+c] = (byte)h.charAt(c);
+	    }
+	}
+    }
+    private final static byte[] DIGITS = {
+	'0','1','2','3','4','5','6','7','8','9','A','B','C','D','E','F'
+    };
+    private final static byte[] EOL = System.lineSeparator().getBytes();
+    /**
+     * Octets per line
+     */
+    protected final static int LINE = 20;
+    /**
+     * Render block size
+     */
+    private final static int BLOCK = 0x10000;
+    /**
+     * Octets per parallel segment, line aligned
+     */
+    protected final static int SEGMENT = (LINE*0x1000);
+
+
     public final Offset offset;
 
     public final Content content;
 
     private int p = 0;
+    /**
+     * Render block, reused
+     */
+    private byte[] block;
 
 
     public Printer(Offset o, Content c){
@@ -233,43 +301,123 @@ public class Printer {
 
 
     protected void offset(PrintStream out){
+
+	byte[] m = new byte[16];
+
+	out.write(m,0,this.offset(m,0,this.p));
+    }
+    protected void content(int ch, PrintStream out){
+
+	byte[] t = this.table();
+	int w = this.width();
+
+	out.write(t,((ch & 0xFF)*w),w);
+    }
+    /**
+     * Render offset column ({@code "%07d"} or {@code "%08X"}) into
+     * block at index.
+     * 
+     * @param v Offset value
+     * @return Index following offset
+     */
+    protected final int offset(byte[] m, int n, int v){
 	switch(this.offset){
 	case DEC:
-	    out.printf("%07d",p);
-	    break;
+	    if (0 > v){
+		byte[] s = String.format("%07d",v).getBytes();
+		System.arraycopy(s,0,m,n,s.length);
+		return (n+s.length);
+	    }
+	    else {
+		int d = 7;
+		for (int x = 10000000; x <= v && d < 10; x *= 10){
+		    d += 1;
+		}
+		for (int c = (n+d-1); c >= n; c--){
+		    m[c] = DIGITS[v % 10];
+		    v /= 10;
+		}
+		return (n+d);
+	    }
 	case HEX:
-	    out.printf("%08X",p);
-	    break;
+	    for (int c = (n+7); c >= n; c--){
+		m[c] = DIGITS[v & 0xF];
+		v >>>= 4;
+	    }
+	    return (n+8);
 	default:
 	    throw new InternalError(this.offset.name());
 	}
     }
-    protected void content(int ch, PrintStream out){
+    /**
+     * @return Content rendering table
+     */
+    protected final byte[] table(){
 	switch(this.content){
-
 	case ASC:
-	    ASCII as = ASCII.valueOf(ch);
-	    if (null != as){
+	    return ASC;
+	case HEX:
+	    return HEX;
+	default:
+	    throw new InternalError(this.content.name());
+	}
+    }
+    /**
+     * @return Content rendering width per octet
+     */
+    protected final int width(){
+	switch(this.content){
+	case ASC:
+	    return 4;
+	case HEX:
+	    return 3;
+	default:
+	    throw new InternalError(this.content.name());
+	}
+    }
+    /**
+     * @return Maximum line rendering size
+     */
+    protected final int line(){
 
-		out.printf(" %3s",as.name());
-	    }
-	    else if (0x20 < ch && 0x7F > ch){
+	return (10+(LINE*this.width())+EOL.length);
+    }
+    /**
+     * Render one line of octets {@code [i,e)} at offset {@code v}
+     * into block at index.
+     * 
+     * @return Index following line
+     */
+    protected final int line(byte[] b, int i, int e, int v, byte[] m, int n){
 
-		out.printf(" %3c",ch);
-	    }
-	    else {
+	final byte[] t = this.table();
+	final int w = this.width();
+
+	n = this.offset(m,n,v);
 
-		out.printf(" %03X",ch);
+	for (; i < e; i++){
+
+	    int x = ((b[i] & 0xFF)*w);
+
+	    for (int c = 0; c < w; c++){
+
+		m[n++] = t[x+c];
 	    }
-	    break;
+	}
 
-	case HEX:
-	    out.printf(" %02X",ch);
-	    break;
+	System.arraycopy(EOL,0,m,n,EOL.length);
 
-	default:
-	    throw new InternalError(this.content.name());
+	return (n+EOL.length);
+    }
+    /**
+     * @return Reusable render block
+     */
+    private byte[] block(){
+	if (null == this.block){
+
+	    this.block = new byte[BLOCK];
 	}
+	return this.block;
     }
     public void reset(){
 
@@ -283,48 +431,159 @@ public class Printer {
 
 	this.print(b,i,l,System.out);
     }
+    /**
+     * Render lines of twenty octets into a reusable block by table
+     * lookup, writing whole blocks to the output.
+     */
     public void print(byte[] b, int i, int l, PrintStream out){
 
-	int z = (i+l);
+	final int y = this.line();
+	final byte[] m = this.block();
 
-	int c = 0;
+	int z = (i+l);
+	int n = 0;
 
 	while (i < z){
 
-	    offset(out);
+	    if ((n+y) > m.length){
 
-	    for (c = 0; c < 20 && i < z; c++,p++,i++){
-
-		content( (b[i] & 0xFF), out);
+		out.write(m,0,n);
+		n = 0;
 	    }
 
-	    out.println();
+	    int e = Math.min(z,(i+LINE));
+
+	    n = this.line(b,i,e,this.p,m,n);
+
+	    this.p += (e-i);
+
+	    i = e;
 	}
 
-	offset(out);
-	out.println();
-    }
-    public boolean print(RandomAccessBuffer rabu){
+	if ((n+y) > m.length){
 
-	return this.print(rabu,System.out);
+	    out.write(m,0,n);
+	    n = 0;
+	}
+
+	n = this.line(b,z,z,this.p,m,n);
+
+	out.write(m,0,n);
     }
-    public boolean print(RandomAccessBuffer rabu, PrintStream out){
+    /**
+     * Parallel rendering with the common fork join pool.
+     * 
+     * @see #print(byte[],int,int,WritableByteChannel,ExecutorService)
+     */
+    public void print(byte[] b, int i, int l, WritableByteChannel out)
+	throws IOException
+    {
+	this.print(b,i,l,out,ForkJoinPool.commonPool());
+    }
+    /**
+     * Parallel rendering of line aligned segments, written to the
+     * output in order.  Each segment has an offset derived from its
+     * position, so segments are rendered independently by workers.
+     * Output is identical to {@link #print(byte[],int,int,PrintStream)}.
+     * 
+     * @param exec Segment rendering workers
+     */
+    public void print(final byte[] b, int i, int l, WritableByteChannel out, ExecutorService exec)
+	throws IOException
+    {
+	final int z = (i+l);
+	final int p = this.p;
+	final int depth = (2*Runtime.getRuntime().availableProcessors());
+
+	ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+	try {
+	    int x = i;
+
+	    while (x < z || !pending.isEmpty()){
 
-	Buffer b = rabu.buffer;
-	Window w = rabu.window;
-	State s = rabu.state;
+		while (x < z && pending.size() < depth){
 
-	int i = b.internal(w,s);
-	int q = b.available(w,s);
+		    final int si = x;
+		    final int se = Math.min(z,(x+SEGMENT));
+		    final int sp = (p+(x-i));
 
-	if (b.bounds(w,i,q)){
+		    pending.add(exec.submit(new Callable<ByteBuffer>(){
+			    public ByteBuffer call(){
+				return Printer.this.segment(b,si,se,sp);
+			    }
+			}));
+		    x = se;
+		}
 
-	    this.print(b.buffer,i,q,out);
+		ByteBuffer r = pending.remove().get();
 
-	    return true;
+		while (r.hasRemaining()){
+
+		    out.write(r);
+		}
+	    }
 	}
-	else {
-	    return false;
+	catch (ExecutionException exc){
+
+	    throw new IOException(exc.getCause());
+	}
+	catch (InterruptedException exc){
+
+	    Thread.currentThread().interrupt();
+
+	    throw new InterruptedIOException();
+	}
+	finally {
+	    for (Future<ByteBuffer> f : pending){
+
+		f.cancel(true);
+	    }
 	}
+
+	this.p = (p+l);
+
+	byte[] m = new byte[this.line()];
+
+	ByteBuffer r = ByteBuffer.wrap(m,0,this.line(b,z,z,this.p,m,0));
+
+	while (r.hasRemaining()){
+
+	    out.write(r);
+	}
+    }
+    /**
+     * Render octets {@code [i,z)} at offset {@code v}.
+     */
+    private ByteBuffer segment(byte[] b, int i, int z, int v){
+
+	int lines = (((z-i)+LINE-1)/LINE);
+
+	byte[] m = new byte[lines*this.line()];
+	int n = 0;
+
+	while (i < z){
+
+	    int e = Math.min(z,(i+LINE));
+
+	    n = this.line(b,i,e,v,m,n);
+
+	    v += (e-i);
+
+	    i = e;
+	}
+	return ByteBuffer.wrap(m,0,n);
+    }
+    public boolean print(RandomAccessBuffer rabu){
+
+	return this.print(rabu,System.out);
+    }
+    public boolean print(RandomAccessBuffer rabu, PrintStream out){
+
+	return rabu.buffer.print(rabu.window,rabu.state,this,out);
+    }
+    public boolean print(RandomAccessBuffer rabu, WritableByteChannel out)
+	throws IOException
+    {
+	return rabu.buffer.print(rabu.window,rabu.state,this,out);
     }
 }
@@ -21,6 +21,9 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.zip.Checksum;
 
 /**
  * Buffer handling and windowing.  The "read" interface is stateful,
@@ -68,6 +71,12 @@ public class RandomAccessBuffer
 	this.buffer = r.buffer;
 	this.window = w;
     }
+    protected RandomAccessBuffer(Buffer b, Window w)
+    {
+	super();
+	this.buffer = b;
+	this.window = w;
+    }
 
 
     /**
@@ -113,6 +122,16 @@ public class RandomAccessBuffer
 
 	return this.buffer.reset(this.window,this.state);
     }
+    /**
+     * Discard buffer content for reuse of capacity, and set user I/O
+     * pointer {@link State} to zero.
+     * 
+     * @return False for a windowed, read only, or edited buffer
+     */
+    public final boolean clear(){
+
+	return this.buffer.clear(this.window,this.state);
+    }
     /**
      * @param external User I/O pointer (buffer offset)
      */
@@ -176,6 +195,25 @@ public class RandomAccessBuffer
     {
 	return this.buffer.copy(this.window,this.state,x,q);
     }
+    /**
+     * Read from buffer without incrementing the user I/O pointer
+     * ({@link State}).
+     */
+    public final int copy(int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	return this.buffer.copy(this.window,this.state,x,q,out);
+    }
+    /**
+     * Update checksum over region without copying or incrementing
+     * the user I/O pointer ({@link State}).
+     * 
+     * @see Hash
+     */
+    public final boolean update(Checksum c, int x, int q){
+
+	return this.buffer.update(this.window,this.state,x,q,c);
+    }
     /**
      * Copy buffer to (standard) output using I/O pointer {@link
      * State} with external offsets.  This operation has no effect on
@@ -200,6 +238,19 @@ public class RandomAccessBuffer
 	else
 	    throw new InternalError();
     }
+    /**
+     * Copy buffer to (argument) output using I/O pointer {@link
+     * State} with external offsets, rendering in parallel.  This
+     * operation has no effect on the read state.
+     */
+    public void print(WritableByteChannel out)
+	throws IOException
+    {
+	if (this.buffer.print(this.window,this.state,this.buffer,out))
+	    return;
+	else
+	    throw new InternalError();
+    }
     /**
      * Readable size of buffer, independent of user I/O pointer {@link
      * State}.
@@ -231,6 +282,15 @@ public class RandomAccessBuffer
 
 	return this.buffer.set(this.window,this.state,x,v);
     }
+    /**
+     * Random access constrainted by window, without growth.
+     * 
+     * @see #copy(int,int)
+     */
+    public final boolean set(int x, byte[] b, int o, int l){
+
+	return this.buffer.set(this.window,this.state,x,b,o,l);
+    }
     /**
      * 
      */
@@ -245,4 +305,26 @@ public class RandomAccessBuffer
 
 	return this.buffer.substring(this.window,this.state,o,l);
     }
+    /**
+     * 
+     */
+    public final String substring(int o, int l, Charset cs){
+
+	return this.buffer.substring(this.window,this.state,o,l,cs);
+    }
+    /**
+     * Repeated content shares its string while cached.
+     */
+    public final String substring(int o, int l, Intern cache){
+
+	return this.buffer.substring(this.window,this.state,o,l,cache);
+    }
+    /**
+     * @return Content at external offset equals pattern, compared
+     * without allocation
+     */
+    public final boolean equals(int o, byte[] p){
+
+	return this.buffer.equals(this.window,this.state,o,p);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Copy on write child of a {@link RandomAccessBuffer rabu}.
+ * 
+ * Unlike {@link RandomAccessBuffer#RandomAccessBuffer(RandomAccessBuffer,Window)
+ * a child window}, which writes into the buffer of its parent, this
+ * child writes into private copies of the pages it touches.  The
+ * parent is unchanged until {@link #commit() commit}, so readers of
+ * the parent in other threads never see a speculative edit, and an
+ * edit that fails validation is dropped by {@link #discard()
+ * discard}.  Readers of the parent are not synchronized with commit,
+ * and may see it partly written unless they synchronize on the parent
+ * buffer.
+ * 
+ * @see CopyOnWrite
+ */
+public class RandomAccessCopyOnWrite
+    extends RandomAccessBuffer
+{
+
+    protected final CopyOnWrite cow;
+
+
+    /**
+     * @param r Parent
+     * @param x External offset of region in parent
+     * @param q Length of region
+     */
+    public RandomAccessCopyOnWrite(RandomAccessBuffer r, int x, int q){
+	this(r,x,q,CopyOnWrite.PAGE);
+    }
+    /**
+     * @param page Page size, a power of two
+     */
+    public RandomAccessCopyOnWrite(RandomAccessBuffer r, int x, int q, int page){
+	this(new CopyOnWrite(new Printer.Configuration(r.buffer.offset,r.buffer.content),r.buffer,r.window,x,q,page));
+    }
+    protected RandomAccessCopyOnWrite(CopyOnWrite c){
+	super(c,new Window());
+	this.cow = c;
+    }
+
+
+    /**
+     * @return Count of privately copied pages
+     */
+    public final int dirty(){
+
+	return this.cow.dirty();
+    }
+    /**
+     * Write modified octets to the parent, and share its pages again.
+     * 
+     * @return Count of octets written to the parent
+     */
+    public final int commit(){
+
+	return this.cow.commit();
+    }
+    /**
+     * Drop modifications, and share the pages of the parent again.
+     */
+    public final void discard(){
+
+	this.cow.discard();
+    }
+}
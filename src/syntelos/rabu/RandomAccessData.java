@@ -99,20 +99,44 @@ public class RandomAccessData
 
 	return super.get(ofs);
     }
+    /**
+     * Write the argument value to the buffer at offset as an eight bit
+     * unsigned integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean uint8(int ofs, int v){
+
+	if (-1 < v && 0xFF >= v){
+
+	    byte[] m = new byte[1];
+
+	    this.endian.uint8(m,0,v);
+
+	    return this.store(ofs,m);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(v));
+	}
+    }
     /**
      * Write the argument value to the argument output as an eight bit
-     * byte.  Return the subject value.
+     * unsigned integer.  Return the subject value.
      */
-    public int uint8(int a, OutputStream out) throws IOException {
+    public int uint8(int v, OutputStream out) throws IOException {
+
+	if (-1 < v && 0xFF >= v){
 
-	if (-1 < a & 0xFF >= a){
+	    byte[] m = new byte[1];
 
-	    out.write(a);
+	    this.endian.uint8(m,0,v);
 
-	    return a;
+	    out.write(m,0,1);
+
+	    return v;
 	}
 	else {
-	    throw new IllegalArgumentException(String.valueOf(a));
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
@@ -120,414 +144,678 @@ public class RandomAccessData
      * Return the subject value.
      */
     public int uint8(InputStream in) throws IOException {
-	int a = in.read();
-	if (-1 < a){
 
-	    super.write(a);
+	return this.endian.uint8(this.in(in,1),0);
+    }
+    /**
+     * Read one byte from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public int uint8(OutputStream out) throws IOException {
 
-	    return a;
+	return this.endian.uint8(this.out(out,1),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as an eight bit signed integer
+     */
+    public int sint8(int ofs){
+
+	int i = this.direct(ofs,1);
+
+	return (-1 < i)?(this.endian.sint8(this.buffer.buffer,i)):(this.endian.sint8(this.word(ofs,1),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as an eight bit
+     * signed integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean sint8(int ofs, int v){
+
+	if (-0x80 <= v && 0x7F >= v){
+
+	    byte[] m = new byte[1];
+
+	    this.endian.sint8(m,0,v);
+
+	    return this.store(ofs,m);
 	}
 	else {
-	    throw new EOFException();
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * Read one byte from the buffer, and write to the output
-     * argument.  Return the subject value.
+     * Write the argument value to the argument output as an eight bit
+     * signed integer.  Return the subject value.
      */
-    public int uint8(OutputStream out) throws IOException {
-	int a = super.read();
-	if (-1 < a){
+    public int sint8(int v, OutputStream out) throws IOException {
+
+	if (-0x80 <= v && 0x7F >= v){
 
-	    out.write(a);
+	    byte[] m = new byte[1];
 
-	    return a;
+	    this.endian.sint8(m,0,v);
+
+	    out.write(m,0,1);
+
+	    return v;
 	}
 	else {
-	    throw new EOFException();
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
+    /**
+     * Read one byte from the input argument, and write to the buffer.
+     * Return the subject value.
+     */
+    public int sint8(InputStream in) throws IOException {
+
+	return this.endian.sint8(this.in(in,1),0);
+    }
+    /**
+     * Read one byte from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public int sint8(OutputStream out) throws IOException {
+
+	return this.endian.sint8(this.out(out,1),0);
+    }
     /**
      * @param ofs Offset of data
-     * @return Indexed data
+     * @return Indexed data as a sixteen bit unsigned integer
      */
     public int uint16(int ofs){
 
-	int a = super.get(ofs);
-	int b = super.get(ofs+1);
+	int i = this.direct(ofs,2);
 
-	switch(this.endian){
-	case LE:
-	    return (((b & 0xFF) << 8)|(a & 0xFF));
+	return (-1 < i)?(this.endian.uint16(this.buffer.buffer,i)):(this.endian.uint16(this.word(ofs,2),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a sixteen bit
+     * unsigned integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean uint16(int ofs, int v){
+
+	if (-1 < v && 0xFFFF >= v){
+
+	    byte[] m = new byte[2];
 
-	case BE:
-	    return (((a & 0xFF) << 8)|(b & 0xFF));
+	    this.endian.uint16(m,0,v);
 
-	default:
-	    throw new InternalError(this.endian.name());
+	    return this.store(ofs,m);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * Write the argument value to the argument output as an unsigned
-     * sixteen bit integer.  Return the subject value.
+     * Write the argument value to the argument output as a sixteen bit
+     * unsigned integer.  Return the subject value.
      */
     public int uint16(int v, OutputStream out) throws IOException {
 
 	if (-1 < v && 0xFFFF >= v){
 
-	    int a = ((v & 0xFF00) >>> 8);
-	    int b = (v & 0xFF);
-
-	    switch(this.endian){
-	    case LE:
-		out.write(b);
-		out.write(a);
-		return v;
-	    case BE:
-		out.write(a);
-		out.write(b);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
+	    byte[] m = new byte[2];
+
+	    this.endian.uint16(m,0,v);
+
+	    out.write(m,0,2);
+
+	    return v;
 	}
 	else {
 	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * Read two bytes from the input argument, and write to the
-     * buffer.  Return the subject value.
+     * Read two bytes from the input argument, and write to the buffer.
+     * Return the subject value.
      */
     public int uint16(InputStream in) throws IOException {
-	int a = in.read();
-	int b = in.read();
-	if (-1 < a && -1 < b){
-	    int v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((b & 0xFF) << 8)|(a & 0xFF));
-		super.write(b);
-		super.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFF) << 8)|(b & 0xFF));
-		super.write(a);
-		super.write(b);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
-	}
-	else {
-	    throw new EOFException();
-	}
+
+	return this.endian.uint16(this.in(in,2),0);
     }
     /**
      * Read two bytes from the buffer, and write to the output
      * argument.  Return the subject value.
      */
     public int uint16(OutputStream out) throws IOException {
-	int a = super.read();
-	int b = super.read();
-	if (-1 < a && -1 < b){
-	    int v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((b & 0xFF) << 8)|(a & 0xFF));
-		out.write(b);
-		out.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFF) << 8)|(b & 0xFF));
-		out.write(a);
-		out.write(b);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
+
+	return this.endian.uint16(this.out(out,2),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as a sixteen bit signed integer
+     */
+    public int sint16(int ofs){
+
+	int i = this.direct(ofs,2);
+
+	return (-1 < i)?(this.endian.sint16(this.buffer.buffer,i)):(this.endian.sint16(this.word(ofs,2),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a sixteen bit
+     * signed integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean sint16(int ofs, int v){
+
+	if (-0x8000 <= v && 0x7FFF >= v){
+
+	    byte[] m = new byte[2];
+
+	    this.endian.sint16(m,0,v);
+
+	    return this.store(ofs,m);
 	}
 	else {
-	    throw new EOFException();
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * @param ofs Offset of data 
-     * @return Indexed data 
+     * Write the argument value to the argument output as a sixteen bit
+     * signed integer.  Return the subject value.
      */
-    public int sint32(int ofs){
+    public int sint16(int v, OutputStream out) throws IOException {
+
+	if (-0x8000 <= v && 0x7FFF >= v){
+
+	    byte[] m = new byte[2];
 
-	int a = super.get(ofs);
-	int b = super.get(ofs+1);
-	int c = super.get(ofs+2);
-	int d = super.get(ofs+3);
-	switch(this.endian){
-	case LE:
-	    return (((d & 0xFF) << 24)|((c & 0xFF) << 16)|((b & 0xFF) << 8)|(a & 0xFF));
+	    this.endian.sint16(m,0,v);
 
-	case BE:
-	    return (((a & 0xFF) << 24)|((b & 0xFF) << 16)|((c & 0xFF) << 8)|(d & 0xFF));
+	    out.write(m,0,2);
 
-	default:
-	    throw new InternalError(this.endian.name());
+	    return v;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * Write the argument value to the argument output as a signed,
-     * thirty two bit integer.  Return the subject value.
+     * Read two bytes from the input argument, and write to the buffer.
+     * Return the subject value.
      */
-    public int sint32(int v, OutputStream out) throws IOException {
-	int a = ((v & 0xFF000000) >>> 24);
-	int b = ((v & 0x00FF0000) >>> 16);
-	int c = ((v & 0x0000FF00) >>> 8);
-	int d = (v & 0x000000FF);
-
-	switch(this.endian){
-	case LE:
-	    out.write(d);
-	    out.write(c);
-	    out.write(b);
-	    out.write(a);
-	    return v;
-	case BE:
-	    out.write(a);
-	    out.write(b);
-	    out.write(c);
-	    out.write(d);
-	    return v;
-	default:
-	    throw new InternalError(this.endian.name());
+    public int sint16(InputStream in) throws IOException {
+
+	return this.endian.sint16(this.in(in,2),0);
+    }
+    /**
+     * Read two bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public int sint16(OutputStream out) throws IOException {
+
+	return this.endian.sint16(this.out(out,2),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as a thirty two bit unsigned integer
+     */
+    public long uint32(int ofs){
+
+	int i = this.direct(ofs,4);
+
+	return (-1 < i)?(this.endian.uint32(this.buffer.buffer,i)):(this.endian.uint32(this.word(ofs,4),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a thirty two
+     * bit unsigned integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean uint32(int ofs, long v){
+
+	if (-1L < v && 0xFFFFFFFFL >= v){
+
+	    byte[] m = new byte[4];
+
+	    this.endian.uint32(m,0,v);
+
+	    return this.store(ofs,m);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
     /**
-     * Read four bytes from the input argument, and write to the
-     * buffer.  Return the subject value.
+     * Write the argument value to the argument output as a thirty two
+     * bit unsigned integer.  Return the subject value.
      */
-    public int sint32(InputStream in) throws IOException {
-	int a = in.read();
-	int b = in.read();
-	int c = in.read();
-	int d = in.read();
-	if (-1 < a && -1 < b && -1 < c && -1 < d){
-	    int v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((d & 0xFF) << 24)|((c & 0xFF) << 16)|((b & 0xFF) << 8)|(a & 0xFF));
-		super.write(d);
-		super.write(c);
-		super.write(b);
-		super.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFF) << 24)|((b & 0xFF) << 16)|((c & 0xFF) << 8)|(d & 0xFF));
-		super.write(a);
-		super.write(b);
-		super.write(c);
-		super.write(d);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
+    public long uint32(long v, OutputStream out) throws IOException {
+
+	if (-1L < v && 0xFFFFFFFFL >= v){
+
+	    byte[] m = new byte[4];
+
+	    this.endian.uint32(m,0,v);
+
+	    out.write(m,0,4);
+
+	    return v;
 	}
 	else {
-	    throw new EOFException();
+	    throw new IllegalArgumentException(String.valueOf(v));
 	}
     }
+    /**
+     * Read four bytes from the input argument, and write to the buffer.
+     * Return the subject value.
+     */
+    public long uint32(InputStream in) throws IOException {
+
+	return this.endian.uint32(this.in(in,4),0);
+    }
+    /**
+     * Read four bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public long uint32(OutputStream out) throws IOException {
+
+	return this.endian.uint32(this.out(out,4),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as a thirty two bit signed integer
+     */
+    public int sint32(int ofs){
+
+	int i = this.direct(ofs,4);
+
+	return (-1 < i)?(this.endian.sint32(this.buffer.buffer,i)):(this.endian.sint32(this.word(ofs,4),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a thirty two
+     * bit signed integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean sint32(int ofs, int v){
+
+	byte[] m = new byte[4];
+
+	this.endian.sint32(m,0,v);
+
+	return this.store(ofs,m);
+    }
+    /**
+     * Write the argument value to the argument output as a thirty two
+     * bit signed integer.  Return the subject value.
+     */
+    public int sint32(int v, OutputStream out) throws IOException {
+
+	byte[] m = new byte[4];
+
+	this.endian.sint32(m,0,v);
+
+	out.write(m,0,4);
+
+	return v;
+    }
+    /**
+     * Read four bytes from the input argument, and write to the buffer.
+     * Return the subject value.
+     */
+    public int sint32(InputStream in) throws IOException {
+
+	return this.endian.sint32(this.in(in,4),0);
+    }
     /**
      * Read four bytes from the buffer, and write to the output
      * argument.  Return the subject value.
      */
     public int sint32(OutputStream out) throws IOException {
-	int a = super.read();
-	int b = super.read();
-	int c = super.read();
-	int d = super.read();
-	if (-1 < a && -1 < b && -1 < c && -1 < d){
-	    int v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((d & 0xFF) << 24)|((c & 0xFF) << 16)|((b & 0xFF) << 8)|(a & 0xFF));
-		out.write(d);
-		out.write(c);
-		out.write(b);
-		out.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFF) << 24)|((b & 0xFF) << 16)|((c & 0xFF) << 8)|(d & 0xFF));
-		out.write(a);
-		out.write(b);
-		out.write(c);
-		out.write(d);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
-	}
-	else {
-	    throw new EOFException();
-	}
+
+	return this.endian.sint32(this.out(out,4),0);
     }
     /**
-     * @param ofs Offset of data 
-     * @return Indexed data 
+     * @param ofs Offset of data
+     * @return Indexed data as a sixty four bit unsigned integer
      */
-    public long sint64(int ofs) throws IOException {
-	int a = super.get(ofs);
-	int b = super.get(ofs+1);
-	int c = super.get(ofs+2);
-	int d = super.get(ofs+3);
-	int e = super.get(ofs+4);
-	int f = super.get(ofs+5);
-	int g = super.get(ofs+6);
-	int h = super.get(ofs+7);
+    public long uint64(int ofs){
 
-	switch(this.endian){
-	case LE:
-	    return (((h & 0xFFL) << 56)|((g & 0xFFL) << 48)|((f & 0xFFL) << 40)|((e & 0xFFL) << 32)|
-		    ((d & 0xFFL) << 24)|((c & 0xFFL) << 16)|((b & 0xFFL) << 8)|(a & 0xFFL));
+	int i = this.direct(ofs,8);
 
-	case BE:
-	    return (((a & 0xFFL) << 56)|((b & 0xFFL) << 48)|((c & 0xFFL) << 40)|((d & 0xFFL) << 32)|
-		    ((e & 0xFFL) << 24)|((f & 0xFFL) << 16)|((g & 0xFFL) << 8)|(h & 0xFFL));
+	return (-1 < i)?(this.endian.uint64(this.buffer.buffer,i)):(this.endian.uint64(this.word(ofs,8),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a sixty four
+     * bit unsigned integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean uint64(int ofs, long v){
 
-	default:
-	    throw new InternalError(this.endian.name());
-	}
+	byte[] m = new byte[8];
+
+	this.endian.uint64(m,0,v);
+
+	return this.store(ofs,m);
     }
     /**
-     * Write the argument value to the argument output as a signed,
-     * sixty four bit integer.  Return the subject value.
+     * Write the argument value to the argument output as a sixty four
+     * bit unsigned integer.  Return the subject value.
+     */
+    public long uint64(long v, OutputStream out) throws IOException {
+
+	byte[] m = new byte[8];
+
+	this.endian.uint64(m,0,v);
+
+	out.write(m,0,8);
+
+	return v;
+    }
+    /**
+     * Read eight bytes from the input argument, and write to the
+     * buffer.  Return the subject value.
+     */
+    public long uint64(InputStream in) throws IOException {
+
+	return this.endian.uint64(this.in(in,8),0);
+    }
+    /**
+     * Read eight bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public long uint64(OutputStream out) throws IOException {
+
+	return this.endian.uint64(this.out(out,8),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as a sixty four bit signed integer
+     */
+    public long sint64(int ofs){
+
+	int i = this.direct(ofs,8);
+
+	return (-1 < i)?(this.endian.sint64(this.buffer.buffer,i)):(this.endian.sint64(this.word(ofs,8),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as a sixty four
+     * bit signed integer, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean sint64(int ofs, long v){
+
+	byte[] m = new byte[8];
+
+	this.endian.sint64(m,0,v);
+
+	return this.store(ofs,m);
+    }
+    /**
+     * Write the argument value to the argument output as a sixty four
+     * bit signed integer.  Return the subject value.
      */
     public long sint64(long v, OutputStream out) throws IOException {
-	int a = (int)((v & 0xFF00000000000000L) >>> 56);
-	int b = (int)((v & 0x00FF000000000000L) >>> 48);
-	int c = (int)((v & 0x0000FF0000000000L) >>> 40);
-	int d = (int)((v & 0x000000FF00000000L) >>> 32);
-	int e = (int)((v & 0x00000000FF000000L) >>> 24);
-	int f = (int)((v & 0x0000000000FF0000L) >>> 16);
-	int g = (int)((v & 0x000000000000FF00L) >>> 8);
-	int h = (int)(v & 0x00000000000000FFL);
-
-	switch(this.endian){
-	case LE:
-	    out.write(h);
-	    out.write(g);
-	    out.write(f);
-	    out.write(e);
-	    out.write(d);
-	    out.write(c);
-	    out.write(b);
-	    out.write(a);
-	    return v;
-	case BE:
-	    out.write(a);
-	    out.write(b);
-	    out.write(c);
-	    out.write(d);
-	    out.write(e);
-	    out.write(f);
-	    out.write(g);
-	    out.write(h);
-	    return v;
-	default:
-	    throw new InternalError(this.endian.name());
-	}
+
+	byte[] m = new byte[8];
+
+	this.endian.sint64(m,0,v);
+
+	out.write(m,0,8);
+
+	return v;
     }
     /**
      * Read eight bytes from the input argument, and write to the
      * buffer.  Return the subject value.
      */
     public long sint64(InputStream in) throws IOException {
-	int a = in.read();
-	int b = in.read();
-	int c = in.read();
-	int d = in.read();
-	int e = in.read();
-	int f = in.read();
-	int g = in.read();
-	int h = in.read();
-	if (-1 < a && -1 < b && -1 < c && -1 < d && -1 < e && -1 < f && -1 < g && -1 < h){
-	    long v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((h & 0xFFL) << 56)|((g & 0xFFL) << 48)|((f & 0xFFL) << 40)|((e & 0xFFL) << 32)|
-		     ((d & 0xFFL) << 24)|((c & 0xFFL) << 16)|((b & 0xFFL) << 8)|(a & 0xFFL));
-		super.write(h);
-		super.write(g);
-		super.write(f);
-		super.write(e);
-		super.write(d);
-		super.write(c);
-		super.write(b);
-		super.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFFL) << 56)|((b & 0xFFL) << 48)|((c & 0xFFL) << 40)|((d & 0xFFL) << 32)|
-		     ((e & 0xFFL) << 24)|((f & 0xFFL) << 16)|((g & 0xFFL) << 8)|(h & 0xFFL));
-		super.write(a);
-		super.write(b);
-		super.write(c);
-		super.write(d);
-		super.write(e);
-		super.write(f);
-		super.write(g);
-		super.write(h);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
-	}
-	else {
-	    throw new EOFException();
-	}
+
+	return this.endian.sint64(this.in(in,8),0);
     }
     /**
      * Read eight bytes from the buffer, and write to the output
      * argument.  Return the subject value.
      */
     public long sint64(OutputStream out) throws IOException {
-	int a = super.read();
-	int b = super.read();
-	int c = super.read();
-	int d = super.read();
-	int e = super.read();
-	int f = super.read();
-	int g = super.read();
-	int h = super.read();
-	if (-1 < a && -1 < b && -1 < c && -1 < d && -1 < e && -1 < f && -1 < g && -1 < h){
-	    long v = 0;
-	    switch(this.endian){
-	    case LE:
-		v = (((h & 0xFFL) << 56)|((g & 0xFFL) << 48)|((f & 0xFFL) << 40)|((e & 0xFFL) << 32)|
-		     ((d & 0xFFL) << 24)|((c & 0xFFL) << 16)|((b & 0xFFL) << 8)|(a & 0xFFL));
-		out.write(h);
-		out.write(g);
-		out.write(f);
-		out.write(e);
-		out.write(d);
-		out.write(c);
-		out.write(b);
-		out.write(a);
-		return v;
-	    case BE:
-		v = (((a & 0xFFL) << 56)|((b & 0xFFL) << 48)|((c & 0xFFL) << 40)|((d & 0xFFL) << 32)|
-		     ((e & 0xFFL) << 24)|((f & 0xFFL) << 16)|((g & 0xFFL) << 8)|(h & 0xFFL));
-		out.write(a);
-		out.write(b);
-		out.write(c);
-		out.write(d);
-		out.write(e);
-		out.write(f);
-		out.write(g);
-		out.write(h);
-		return v;
-	    default:
-		throw new InternalError(this.endian.name());
-	    }
+
+	return this.endian.sint64(this.out(out,8),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as an IEEE 754 binary16
+     */
+    public float float16(int ofs){
+
+	int i = this.direct(ofs,2);
+
+	return (-1 < i)?(this.endian.float16(this.buffer.buffer,i)):(this.endian.float16(this.word(ofs,2),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as an IEEE 754
+     * binary16, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean float16(int ofs, float v){
+
+	byte[] m = new byte[2];
+
+	this.endian.float16(m,0,v);
+
+	return this.store(ofs,m);
+    }
+    /**
+     * Write the argument value to the argument output as an IEEE 754
+     * binary16.  Return the subject value.
+     */
+    public float float16(float v, OutputStream out) throws IOException {
+
+	byte[] m = new byte[2];
+
+	this.endian.float16(m,0,v);
+
+	out.write(m,0,2);
+
+	return v;
+    }
+    /**
+     * Read two bytes from the input argument, and write to the buffer.
+     * Return the subject value.
+     */
+    public float float16(InputStream in) throws IOException {
+
+	return this.endian.float16(this.in(in,2),0);
+    }
+    /**
+     * Read two bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public float float16(OutputStream out) throws IOException {
+
+	return this.endian.float16(this.out(out,2),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as an IEEE 754 binary32
+     */
+    public float float32(int ofs){
+
+	int i = this.direct(ofs,4);
+
+	return (-1 < i)?(this.endian.float32(this.buffer.buffer,i)):(this.endian.float32(this.word(ofs,4),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as an IEEE 754
+     * binary32, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean float32(int ofs, float v){
+
+	byte[] m = new byte[4];
+
+	this.endian.float32(m,0,v);
+
+	return this.store(ofs,m);
+    }
+    /**
+     * Write the argument value to the argument output as an IEEE 754
+     * binary32.  Return the subject value.
+     */
+    public float float32(float v, OutputStream out) throws IOException {
+
+	byte[] m = new byte[4];
+
+	this.endian.float32(m,0,v);
+
+	out.write(m,0,4);
+
+	return v;
+    }
+    /**
+     * Read four bytes from the input argument, and write to the buffer.
+     * Return the subject value.
+     */
+    public float float32(InputStream in) throws IOException {
+
+	return this.endian.float32(this.in(in,4),0);
+    }
+    /**
+     * Read four bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public float float32(OutputStream out) throws IOException {
+
+	return this.endian.float32(this.out(out,4),0);
+    }
+    /**
+     * @param ofs Offset of data
+     * @return Indexed data as an IEEE 754 binary64
+     */
+    public double float64(int ofs){
+
+	int i = this.direct(ofs,8);
+
+	return (-1 < i)?(this.endian.float64(this.buffer.buffer,i)):(this.endian.float64(this.word(ofs,8),0));
+    }
+    /**
+     * Write the argument value to the buffer at offset as an IEEE 754
+     * binary64, constrained by window and without growth.
+     * 
+     * @return Written
+     */
+    public boolean float64(int ofs, double v){
+
+	byte[] m = new byte[8];
+
+	this.endian.float64(m,0,v);
+
+	return this.store(ofs,m);
+    }
+    /**
+     * Write the argument value to the argument output as an IEEE 754
+     * binary64.  Return the subject value.
+     */
+    public double float64(double v, OutputStream out) throws IOException {
+
+	byte[] m = new byte[8];
+
+	this.endian.float64(m,0,v);
+
+	out.write(m,0,8);
+
+	return v;
+    }
+    /**
+     * Read eight bytes from the input argument, and write to the
+     * buffer.  Return the subject value.
+     */
+    public double float64(InputStream in) throws IOException {
+
+	return this.endian.float64(this.in(in,8),0);
+    }
+    /**
+     * Read eight bytes from the buffer, and write to the output
+     * argument.  Return the subject value.
+     */
+    public double float64(OutputStream out) throws IOException {
+
+	return this.endian.float64(this.out(out,8),0);
+    }
+    /**
+     * Single bounds check over a word at external offset.
+     * 
+     * @return Index into buffer array, or negative one for a {@link
+     * #word(int,int) copy}
+     */
+    private int direct(int ofs, int q){
+
+	return this.buffer.direct(this.window,this.state,ofs,q);
+    }
+    /**
+     * Copy of a word from a buffer without contiguous representation.
+     */
+    private byte[] word(int ofs, int q){
+
+	byte[] m = this.copy(ofs,q);
+	if (null != m && q == m.length){
+
+	    return m;
 	}
 	else {
-	    throw new EOFException();
+	    throw new IllegalArgumentException(String.valueOf(ofs));
+	}
+    }
+    /**
+     * Write word to buffer at external offset.
+     */
+    private boolean store(int ofs, byte[] m){
+
+	return super.set(ofs,m,0,m.length);
+    }
+    /**
+     * Read word from input, and write to buffer.
+     */
+    private byte[] in(InputStream in, int q) throws IOException {
+
+	byte[] m = new byte[q];
+
+	for (int o = 0; o < q; ){
+
+	    int r = in.read(m,o,(q-o));
+	    if (0 > r){
+
+		throw new EOFException();
+	    }
+	    else {
+		o += r;
+	    }
+	}
+	if (!super.write(m,0,q)){
+
+	    throw new IllegalStateException("buffer write failed.");
+	}
+	return m;
+    }
+    /**
+     * Read word from buffer, and write to output.  A word short of
+     * the available content is not read.
+     */
+    private byte[] out(OutputStream out, int q) throws IOException {
+
+	if (q <= this.available()){
+
+	    byte[] m = new byte[q];
+
+	    if (q == super.read(m,0,q)){
+
+		out.write(m,0,q);
+
+		return m;
+	    }
 	}
+	throw new EOFException();
     }
 
 }
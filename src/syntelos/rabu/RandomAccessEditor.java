@@ -0,0 +1,81 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Edit layer over {@link RandomAccessBuffer rabu} inserts, deletes,
+ * and overwrites without copying or modifying the source buffer.
+ * 
+ * The get/set, read/write, and copy interfaces operate on the edited
+ * view, and {@link #copy(java.io.OutputStream) copy} streams the
+ * edited view from its pieces.  A {@link RandomAccessData} over this
+ * buffer parses the edited view.
+ * 
+ * @see Editor
+ */
+public class RandomAccessEditor
+    extends RandomAccessBuffer
+{
+
+    protected final Editor editor;
+
+
+    /**
+     * @param r Source content within the window of the argument,
+     * which must not change while referenced by this editor.
+     */
+    public RandomAccessEditor(RandomAccessBuffer r){
+	this(new Editor(r.buffer,r.window));
+    }
+    protected RandomAccessEditor(Editor e){
+	super(e,new Window());
+	this.editor = e;
+    }
+
+
+    /**
+     * Insert bytes at external offset, from zero to {@link #length()}.
+     */
+    public final boolean insert(int x, byte[] b, int o, int l){
+
+	return this.editor.insert(this.window,this.state,x,b,o,l);
+    }
+    /**
+     * Delete bytes at external offset.
+     */
+    public final boolean delete(int x, int q){
+
+	return this.editor.delete(this.window,this.state,x,q);
+    }
+    /**
+     * Replace bytes at external offset, extending the edited view
+     * as necessary.
+     */
+    public final boolean overwrite(int x, byte[] b, int o, int l){
+
+	return this.editor.overwrite(this.window,this.state,x,b,o,l);
+    }
+    /**
+     * @return Number of source and edit regions composing the
+     * edited view.
+     */
+    public final int pieces(){
+
+	return this.editor.pieces();
+    }
+}
@@ -21,14 +21,35 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import jdk.jfr.Event;
 
 /**
  * File handling over {@link RandomAccessBuffer rabu} copies file to buffer.
+ * 
+ * The asynchronous {@link #load(Path) load} and {@link #store(Path)
+ * store} transfer a file in segments by positional I/O, with a
+ * number of segments outstanding at once.  Each segment of a load is
+ * read directly into its region of the {@link Buffer}.  The rabu is
+ * not to be employed by the caller before the transfer completes.
  */
 public class RandomAccessFile
     extends RandomAccessBuffer
 {
+    /**
+     * Default count of outstanding segments
+     */
+    public final static int DEPTH = 4;
+    /**
+     * Default segment size
+     */
+    public final static int SEGMENT = 0x100000;
+
 
 
     public RandomAccessFile(Printer.Configuration c){
@@ -45,10 +66,16 @@ public class RandomAccessFile
     public RandomAccessFile(RandomAccessBuffer r, Window w){
 	super(r,w);
     }
+    protected RandomAccessFile(Buffer b, Window w){
+	super(b,w);
+    }
 
 
     public int read(File file){
 	int c = 0;
+	long time = (Metrics.ENABLED)?(System.nanoTime()):(0L);
+	Events.FileRead event = new Events.FileRead();
+	event.begin();
 	FileInputStream fin = null;
 	try {
 	    fin = new FileInputStream(file);
@@ -64,6 +91,16 @@ public class RandomAccessFile
 		    throw new IllegalStateException("buffer write failed.");
 		}
 	    }
+	    if (Metrics.ENABLED){
+
+		Metrics.fileRead(c,(System.nanoTime()-time));
+	    }
+	    if (event.isEnabled()){
+
+		event.path = file.getPath();
+		event.bytes = c;
+		event.commit();
+	    }
 	    return c;
 	}
 	catch (IOException iox){
@@ -81,19 +118,50 @@ public class RandomAccessFile
     }
     public int write(File file){
 
+	long time = (Metrics.ENABLED)?(System.nanoTime()):(0L);
+	Events.FileWrite event = new Events.FileWrite();
+	event.begin();
 	FileOutputStream fout = null;
 	try {
 	    fout = new FileOutputStream(file);
 
-	    byte[] b = new byte[0x200];
 	    int r, c = 0;
 
-	    while (0 < (r = this.read(b,0,0x200))){
+	    if (this.buffer instanceof Sparse){
+		/*
+		 * Leave holes unwritten
+		 */
+		c = Math.max(0,this.available());
 
-		c += r;
+		((Sparse)this.buffer).write(this.window.internal(this.state),c,fout.getChannel());
+
+		this.state.external += c;
+
+		if (fout.getChannel().size() < c){
 
-		fout.write(b,0,r);
+		    fout.getChannel().write(ByteBuffer.wrap(new byte[1]),(c-1));
+		}
+	    }
+	    else {
+		byte[] b = new byte[0x200];
 
+		while (0 < (r = this.read(b,0,0x200))){
+
+		    c += r;
+
+		    fout.write(b,0,r);
+
+		}
+	    }
+	    if (Metrics.ENABLED){
+
+		Metrics.fileWrite(c,(System.nanoTime()-time));
+	    }
+	    if (event.isEnabled()){
+
+		event.path = file.getPath();
+		event.bytes = c;
+		event.commit();
 	    }
 	    return c;
 	}
@@ -110,4 +178,354 @@ public class RandomAccessFile
 	    }
 	}
     }
+    /**
+     * Asynchronous {@link #read(File)}.
+     */
+    public CompletableFuture<Integer> load(Path file){
+
+	return this.load(file,DEPTH,SEGMENT);
+    }
+    /**
+     * Asynchronous {@link #read(File)} copies the file to the buffer
+     * at the I/O pointer, and completes with the count of bytes read
+     * having incremented the I/O pointer.
+     * 
+     * @param file Source
+     * @param depth Count of outstanding segment reads
+     * @param segment Size of segment reads
+     */
+    public CompletableFuture<Integer> load(Path file, int depth, int segment){
+	if (null != file && 0 < depth && 0 < segment){
+	    AsynchronousFileChannel channel = null;
+	    try {
+		channel = AsynchronousFileChannel.open(file,StandardOpenOption.READ);
+
+		long size = channel.size();
+
+		int i = this.window.internal(this.state);
+
+		if ((Integer.MAX_VALUE-i) < size || !this.window.bounds(i,(int)size)){
+
+		    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.state.external,size));
+		}
+		else if (0L < size){
+		    int q = (int)size;
+		    int cap = this.buffer.buffer.length;
+
+		    if ((i+q) > cap){
+
+			this.buffer.grow((i+q)-cap);
+		    }
+		    i = this.buffer.writable(this.window,this.state,this.state.external,q);
+		    if (0 > i){
+
+			throw new IllegalStateException("buffer not writable");
+		    }
+		}
+		Transfer transfer = new Transfer(file,channel,false,i,(int)size,segment);
+
+		channel = null;
+
+		return transfer.start(depth);
+	    }
+	    catch (IOException | RuntimeException exc){
+
+		return CompletableFuture.failedFuture(exc);
+	    }
+	    finally {
+		if (null != channel){
+		    try {
+			channel.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("depth: %d, segment: %d",depth,segment));
+	}
+    }
+    /**
+     * Asynchronous {@link #write(File)}.
+     */
+    public CompletableFuture<Integer> store(Path file){
+
+	return this.store(file,DEPTH,SEGMENT);
+    }
+    /**
+     * Asynchronous {@link #write(File)} copies the buffer available
+     * from the I/O pointer to the file, and completes with the count
+     * of bytes written having incremented the I/O pointer.  A buffer
+     * without contiguous representation is copied one segment at a
+     * time.
+     * 
+     * @param file Target
+     * @param depth Count of outstanding segment writes
+     * @param segment Size of segment writes
+     */
+    public CompletableFuture<Integer> store(Path file, int depth, int segment){
+	if (null != file && 0 < depth && 0 < segment){
+	    AsynchronousFileChannel channel = null;
+	    try {
+		channel = AsynchronousFileChannel.open(file,StandardOpenOption.CREATE,
+						       StandardOpenOption.TRUNCATE_EXISTING,
+						       StandardOpenOption.WRITE);
+		int q = Math.max(0,this.available());
+		int i = (0 < q)?(this.buffer.direct(this.window,this.state,this.state.external,q)):(0);
+
+		Transfer transfer = new Transfer(file,channel,true,i,q,segment);
+
+		channel = null;
+
+		return transfer.start(depth);
+	    }
+	    catch (IOException | RuntimeException exc){
+
+		return CompletableFuture.failedFuture(exc);
+	    }
+	    finally {
+		if (null != channel){
+		    try {
+			channel.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("depth: %d, segment: %d",depth,segment));
+	}
+    }
+    /**
+     * Segmented positional transfer between file and buffer region
+     * at the I/O pointer.  Each outstanding segment reissues its
+     * remainder, then claims the next segment, until the region is
+     * exhausted.
+     */
+    private final class Transfer
+	extends CompletableFuture<Integer>
+	implements CompletionHandler<Integer,Transfer.Segment>
+    {
+
+	private final class Segment
+	    extends Object
+	{
+	    final ByteBuffer data;
+	    /**
+	     * File position of {@link #data} position
+	     */
+	    long position;
+
+	    Segment(ByteBuffer data, long position){
+		super();
+		this.data = data;
+		this.position = position;
+	    }
+	}
+
+
+	private final Path file;
+
+	private final AsynchronousFileChannel channel;
+
+	private final boolean write;
+	/**
+	 * Internal index of region, or negative one for a buffer
+	 * without contiguous representation
+	 */
+	private final int index;
+	/**
+	 * External offset of region
+	 */
+	private final int external;
+
+	private final int size;
+
+	private final int segment;
+
+	private final long time;
+
+	private final Event event;
+
+	private int next, active;
+
+
+	Transfer(Path file, AsynchronousFileChannel channel, boolean write, int index, int size, int segment){
+	    super();
+	    this.file = file;
+	    this.channel = channel;
+	    this.write = write;
+	    this.index = index;
+	    this.external = RandomAccessFile.this.state.external;
+	    this.size = size;
+	    this.segment = segment;
+	    this.time = (Metrics.ENABLED)?(System.nanoTime()):(0L);
+	    if (write){
+		this.event = new Events.FileWrite();
+	    }
+	    else {
+		this.event = new Events.FileRead();
+	    }
+	    this.event.begin();
+	}
+
+
+	CompletableFuture<Integer> start(int depth){
+
+	    if (0 == this.size){
+
+		this.finish();
+	    }
+	    else {
+		synchronized(this){
+
+		    for (int cc = 0; cc < depth; cc++){
+
+			Segment s = this.claim();
+			if (null != s){
+
+			    this.active += 1;
+
+			    this.issue(s);
+			}
+			else {
+			    break;
+			}
+		    }
+		}
+	    }
+	    return this;
+	}
+	public void completed(Integer r, Segment s){
+
+	    int n = r.intValue();
+	    if (0 > n){
+
+		this.failed(new IOException(String.format("%s truncated at %d",this.file,s.position)),s);
+	    }
+	    else if (!this.isDone()){
+
+		s.position += n;
+
+		if (s.data.hasRemaining()){
+
+		    this.issue(s);
+		}
+		else {
+		    Segment t;
+		    boolean finish = false;
+
+		    synchronized(this){
+
+			t = this.claim();
+			if (null == t){
+
+			    finish = (0 == (this.active -= 1));
+			}
+		    }
+		    if (null != t){
+
+			this.issue(t);
+		    }
+		    else if (finish){
+
+			this.finish();
+		    }
+		}
+	    }
+	}
+	public void failed(Throwable exc, Segment s){
+
+	    this.close();
+
+	    this.completeExceptionally(exc);
+	}
+	/**
+	 * Claim the next segment of the region, called under lock.
+	 */
+	private Segment claim(){
+
+	    int p = this.next;
+	    if (p < this.size){
+
+		int q = Math.min(this.segment,(this.size-p));
+
+		this.next = (p+q);
+
+		ByteBuffer data;
+		if (-1 < this.index){
+
+		    data = ByteBuffer.wrap(RandomAccessFile.this.buffer.buffer,(this.index+p),q);
+		}
+		else {
+		    data = ByteBuffer.wrap(RandomAccessFile.this.copy((this.external+p),q));
+		}
+		return new Segment(data,p);
+	    }
+	    else {
+		return null;
+	    }
+	}
+	private void issue(Segment s){
+	    try {
+		if (this.write){
+
+		    this.channel.write(s.data,s.position,s,this);
+		}
+		else {
+		    this.channel.read(s.data,s.position,s,this);
+		}
+	    }
+	    catch (RuntimeException exc){
+
+		this.failed(exc,s);
+	    }
+	}
+	/**
+	 * Region transfer complete, update buffer and I/O pointer.
+	 */
+	private void finish(){
+
+	    this.close();
+
+	    RandomAccessFile rabu = RandomAccessFile.this;
+	    if (!this.write){
+
+		rabu.buffer.length = Math.max(rabu.buffer.length,(this.index+this.size));
+	    }
+	    rabu.state.external = (this.external+this.size);
+
+	    if (Metrics.ENABLED){
+
+		if (this.write)
+		    Metrics.fileWrite(this.size,(System.nanoTime()-this.time));
+		else
+		    Metrics.fileRead(this.size,(System.nanoTime()-this.time));
+	    }
+	    if (this.event.isEnabled()){
+
+		if (this.write){
+		    Events.FileWrite e = (Events.FileWrite)this.event;
+		    e.path = this.file.toString();
+		    e.bytes = this.size;
+		}
+		else {
+		    Events.FileRead e = (Events.FileRead)this.event;
+		    e.path = this.file.toString();
+		    e.bytes = this.size;
+		}
+		this.event.commit();
+	    }
+	    this.complete(this.size);
+	}
+	private void close(){
+	    try {
+		this.channel.close();
+	    }
+	    catch (IOException ignore){
+	    }
+	}
+    }
 }
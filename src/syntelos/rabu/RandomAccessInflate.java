@@ -0,0 +1,119 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Inflate on demand over a zlib or raw deflate region of a {@link
+ * RandomAccessBuffer rabu}, without inflating it up front.
+ * 
+ * The get, read, and copy interfaces operate on the inflated
+ * content, and a {@link RandomAccessData} over this buffer parses it
+ * as it inflates.  Write operations fail, as for {@link
+ * ReadOnlyBuffer}.
+ * 
+ * @see Inflate
+ */
+public class RandomAccessInflate
+    extends RandomAccessBuffer
+{
+
+    protected final Inflate inflate;
+
+
+    /**
+     * @param r Source buffer
+     * @param x External offset of compressed region
+     * @param q Length of compressed region
+     * @param nowrap Raw deflate, rather than zlib
+     */
+    public RandomAccessInflate(RandomAccessBuffer r, int x, int q, boolean nowrap){
+	this(r,x,q,nowrap,Inflate.PAGE,Inflate.PAGES);
+    }
+    /**
+     * @param page Page size, a power of two
+     * @param pages Maximum count of cached pages
+     */
+    public RandomAccessInflate(RandomAccessBuffer r, int x, int q, boolean nowrap, int page, int pages){
+	this(inflate(r,x,q,nowrap,page,pages));
+    }
+    protected RandomAccessInflate(Inflate i){
+	super(i,new Window());
+	this.inflate = i;
+    }
+
+
+    /**
+     * Inflate from the source array, or from a copy of the region for
+     * a buffer without direct access.
+     */
+    private static Inflate inflate(RandomAccessBuffer r, int x, int q, boolean nowrap, int page, int pages){
+
+	Printer.Configuration c = new Printer.Configuration(r.buffer.offset,r.buffer.content);
+
+	int i = r.buffer.direct(r.window,r.state,x,q);
+	if (-1 < i){
+
+	    return new Inflate(c,r.buffer.buffer,i,q,nowrap,page,pages);
+	}
+	else {
+	    byte[] b = r.copy(x,q);
+	    if (null != b){
+
+		return new Inflate(c,b,0,q,nowrap,page,pages);
+	    }
+	    else {
+		throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	    }
+	}
+    }
+    /**
+     * @return Inflated to end of stream
+     */
+    public final boolean finished(){
+
+	return this.inflate.finished();
+    }
+    /**
+     * @return Count of bytes inflated
+     */
+    public final int inflated(){
+
+	return this.inflate.length;
+    }
+    /**
+     * @return Count of cached pages
+     */
+    public final int pages(){
+
+	return this.inflate.pages();
+    }
+    /**
+     * @return Count of restarts for evicted pages
+     */
+    public final int restarts(){
+
+	return this.inflate.restarts();
+    }
+    /**
+     * Release the inflater.
+     */
+    public final void end(){
+
+	this.inflate.end();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * File handling over a {@link Sparse} buffer, for files that are
+ * mostly zero.
+ * 
+ * The {@link #read(java.io.File) read} of a file allocates only its
+ * pages having data, and the {@link #write(java.io.File) write} of a
+ * file leaves its holes unwritten.  The get, read, and copy
+ * interfaces return zeros for holes, and a {@link RandomAccessData}
+ * over this buffer parses it.
+ * 
+ * @see Sparse
+ */
+public class RandomAccessSparse
+    extends RandomAccessFile
+{
+
+    protected final Sparse sparse;
+
+
+    public RandomAccessSparse(Printer.Configuration c){
+	this(c,Sparse.PAGE);
+    }
+    /**
+     * @param page Page size, a power of two
+     */
+    public RandomAccessSparse(Printer.Configuration c, int page){
+	this(new Sparse(c,page));
+    }
+    protected RandomAccessSparse(Sparse s){
+	super(s,new Window());
+	this.sparse = s;
+    }
+
+
+    /**
+     * @return Page size
+     */
+    public final int page(){
+
+	return this.sparse.page();
+    }
+    /**
+     * @return Count of allocated pages
+     */
+    public final int pages(){
+
+	return this.sparse.pages();
+    }
+    /**
+     * @return Count of contiguous runs of allocated pages
+     */
+    public final int extents(){
+
+	return this.sparse.extents();
+    }
+    /**
+     * @return Bytes of allocated pages
+     */
+    public final long resident(){
+
+	return ((long)this.sparse.pages()*this.sparse.page());
+    }
+}
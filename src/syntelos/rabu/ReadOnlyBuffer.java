@@ -0,0 +1,68 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+/**
+ * Immutable buffer content may be shared by many {@link
+ * RandomAccessBuffer rabu}.  Write operations fail, and set
+ * operations throw an exception.  An {@link Editor} over a read only
+ * buffer edits without changing it.
+ * 
+ * @see Dedup
+ */
+public class ReadOnlyBuffer
+    extends Buffer
+{
+
+    public ReadOnlyBuffer(Printer.Configuration c, byte[] b){
+	super(c,b);
+    }
+
+
+    public void grow(int q){
+
+	throw new IllegalStateException("read only");
+    }
+    public boolean clear(Window w, State s){
+
+	return false;
+    }
+    /**
+     * Shared content is not written directly.
+     */
+    public int writable(Window w, State s, int x, int q){
+
+	return -1;
+    }
+    public boolean write(Window w, State s, int b){
+
+	return false;
+    }
+    public boolean write(Window w, State s, byte[] b, int o, int l){
+
+	return false;
+    }
+    public boolean set(Window w, State s, int x, int v){
+
+	throw new IllegalStateException("read only");
+    }
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	throw new IllegalStateException("read only");
+    }
+}
@@ -0,0 +1,610 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Buffer storing only its non-zero pages.
+ * 
+ * Content is held in pages of a fixed size, and a page is allocated
+ * when a write puts a non-zero byte into it.  A page never allocated
+ * is a hole, which reads as zeros.  Loading a mostly zero file, as a
+ * disk image or a preallocated capture file, by {@link
+ * RandomAccessFile#read(java.io.File) read} retains only its pages of
+ * data, and writing it by {@link RandomAccessFile#write(java.io.File)
+ * write} leaves its holes unwritten for the file system.
+ * 
+ * The {@link Buffer#length length} of content includes holes.  A
+ * sparse buffer has no contiguous representation.
+ * 
+ * @see RandomAccessSparse
+ */
+public class Sparse
+    extends Buffer
+{
+    /**
+     * Default page size, as a typical file system block.
+     */
+    public final static int PAGE = 0x1000;
+
+
+    private final int shift, mask;
+    /**
+     * Pages by index, null for a hole.
+     */
+    private byte[][] pages;
+    /**
+     * A page of zeros, read only.
+     */
+    private final byte[] zero;
+
+
+    /**
+     * @param c Printer configuration
+     * @param page Page size, a power of two
+     */
+    public Sparse(Printer.Configuration c, int page){
+	super(c);
+	if (0 < page && 0 == (page & (page-1))){
+
+	    this.shift = Integer.numberOfTrailingZeros(page);
+	    this.mask = (page-1);
+	    this.pages = new byte[0x10][];
+	    this.zero = new byte[page];
+	    this.length = 0;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("page: %d",page));
+	}
+    }
+
+
+    /**
+     * @return Page size
+     */
+    public int page(){
+
+	return (this.mask+1);
+    }
+    /**
+     * @return Count of allocated pages
+     */
+    public int pages(){
+
+	int count = 0;
+
+	for (int n = 0, z = this.count(); n < z; n++){
+
+	    if (null != this.pages[n]){
+
+		count += 1;
+	    }
+	}
+	return count;
+    }
+    /**
+     * @return Count of contiguous runs of allocated pages
+     */
+    public int extents(){
+
+	int count = 0;
+	boolean run = false;
+
+	for (int n = 0, z = this.count(); n < z; n++){
+
+	    if (null != this.pages[n]){
+
+		if (!run){
+
+		    count += 1;
+
+		    run = true;
+		}
+	    }
+	    else {
+		run = false;
+	    }
+	}
+	return count;
+    }
+    /**
+     * Write a region to a file channel at position zero, skipping
+     * the pages that are holes.  The channel is extended to the
+     * length of the region by the caller.
+     * 
+     * @param i Internal index of region
+     * @param q Length of region
+     * @return Bytes written, excluding holes
+     */
+    protected long write(int i, int q, FileChannel out)
+	throws IOException
+    {
+	long c = 0;
+
+	for (int z = (i+q); i < z; ){
+
+	    int o = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-o));
+
+	    byte[] p = this.slot(i >>> this.shift);
+	    if (null != p){
+
+		ByteBuffer b = ByteBuffer.wrap(p,o,n);
+		long position = (q-(z-i));
+
+		while (b.hasRemaining()){
+
+		    position += out.write(b,position);
+		}
+		c += n;
+	    }
+	    i += n;
+	}
+	return c;
+    }
+    /**
+     * Pages are allocated on demand.
+     */
+    public void grow(int q){
+    }
+    public boolean bounds(Window w, int i){
+
+	if (-1 < i && i < this.length && w.bounds(i)){
+
+	    return true;
+	}
+	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
+	    return false;
+	}
+    }
+    public boolean bounds(Window w, int i, int q){
+
+	if (-1 < i && 0 < q && (i+q) <= this.length && w.bounds(i,q)){
+
+	    return true;
+	}
+	else {
+	    if (Metrics.ENABLED){
+
+		Metrics.bounds();
+	    }
+	    return false;
+	}
+    }
+    public int read(Window w, State s){
+
+	int i = this.internal(w,s);
+
+	if (this.bounds(w,i)){
+
+	    s.external += 1;
+
+	    return this.byteAt(i);
+	}
+	else {
+	    return -1;
+	}
+    }
+    public int read(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+	int q = Math.min(l,this.available(w,s));
+
+	if (this.bounds(w,i,q)){
+
+	    s.external += q;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.read(s,q);
+	    }
+	    this.copy(i,(i+q),b,o);
+
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, PrintStream out){
+
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean print(Window w, State s, Printer p, WritableByteChannel out)
+	throws IOException
+    {
+	byte[] b = this.copy(w,s,0,this.available(w,s));
+	if (null != b){
+
+	    p.print(b,0,b.length,out);
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * Discard all pages.
+     */
+    public boolean clear(Window w, State s){
+
+	if (0 == w.delta && 0 == w.length){
+
+	    Arrays.fill(this.pages,null);
+
+	    this.length = 0;
+
+	    s.external = 0;
+
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public boolean write(Window w, State s, int b){
+
+	int i = this.internal(w,s);
+
+	if (0 <= i && w.write(i,1)){
+
+	    this.put(i,(byte)b);
+
+	    this.length = Math.max(this.length,(i+1));
+
+	    s.external += 1;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.write(s,1);
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * A write of zeros into a hole extends the length of content
+     * without allocation.
+     */
+    public boolean write(Window w, State s, byte[] b, int o, int l){
+
+	int i = this.internal(w,s);
+
+	if (0 <= i && 0 <= l && l <= (Integer.MAX_VALUE-i) && w.write(i,l)){
+
+	    this.put(i,b,o,l);
+
+	    this.length = Math.max(this.length,(i+l));
+
+	    s.external += l;
+
+	    if (Metrics.ENABLED){
+
+		Metrics.write(s,l);
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public byte[] copy(Window w, State s, int x, int q)
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    byte[] b = new byte[q];
+	    {
+		this.copy(i,(i+q),b,0);
+	    }
+	    return b;
+	}
+	else {
+	    return null;
+	}
+    }
+    public int copy(Window w, State s, int x, int q, LocationOutputStream out)
+	throws IOException
+    {
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		out.write(this.page(i),o,n);
+
+		i += n;
+	    }
+	    return q;
+	}
+	else {
+	    return -1;
+	}
+    }
+    public boolean update(Window w, State s, int x, int q, Checksum c){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,q)){
+
+	    for (int z = (i+q); i < z; ){
+
+		int o = (i & this.mask);
+		int n = Math.min((z-i),(this.mask+1-o));
+
+		c.update(this.page(i),o,n);
+
+		i += n;
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    public int get(Window w, State s, int x){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    return this.byteAt(i);
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, int v){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i)){
+
+	    this.put(i,(byte)v);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+    public boolean set(Window w, State s, int x, byte[] b, int o, int l){
+
+	int i = this.internal(w,s,x);
+
+	if (this.bounds(w,i,l)){
+
+	    this.put(i,b,o,l);
+
+	    return true;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,l));
+	}
+    }
+    /**
+     * The paged content has no contiguous representation.
+     */
+    public int direct(Window w, State s, int x, int q){
+
+	return -1;
+    }
+    /**
+     * Search for a non-zero octet skips holes.
+     */
+    public int indexOf(Window w, State s, int c){
+
+	int x = s.external;
+	int i = this.internal(w,s);
+
+	while (this.bounds(w,i)){
+
+	    if (0 != c && null == this.slot(i >>> this.shift)){
+
+		int n = ((this.mask+1)-(i & this.mask));
+
+		i += n; x += n;
+	    }
+	    else if (c == this.byteAt(i)){
+
+		return x;
+	    }
+	    else {
+		i++; x++;
+	    }
+	}
+	return -1;
+    }
+    public String substring(Window w, State s, int o, int l, Charset cs){
+
+	byte[] b = this.copy(w,s,o,Math.min(l,this.available(w,s)));
+	if (null != b){
+
+	    return new String(b,0,b.length,cs);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public String substring(Window w, State s, int o, int l, Intern cache){
+
+	byte[] b = this.copy(w,s,o,Math.min(l,this.available(w,s)));
+	if (null != b){
+
+	    return cache.intern(b,0,b.length);
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",o,l));
+	}
+    }
+    public boolean equals(Window w, State s, int o, byte[] p){
+
+	int i = this.internal(w,s,o);
+	int q = p.length;
+
+	if (this.bounds(w,i,q)){
+
+	    for (int cc = 0; cc < q; cc++){
+
+		if (p[cc] != (byte)this.byteAt(i+cc)){
+
+		    return false;
+		}
+	    }
+	    return true;
+	}
+	else {
+	    return false;
+	}
+    }
+    /**
+     * @return Count of page slots covering the length of content
+     */
+    private int count(){
+
+	return Math.min(this.pages.length,((this.length+this.mask) >>> this.shift));
+    }
+    /**
+     * @return Page by page index, or null for a hole
+     */
+    private byte[] slot(int k){
+
+	return (k < this.pages.length)?(this.pages[k]):(null);
+    }
+    /**
+     * @return Page at internal index, or the zero page for a hole
+     */
+    private byte[] page(int i){
+
+	byte[] p = this.slot(i >>> this.shift);
+
+	return (null != p)?(p):(this.zero);
+    }
+    protected final int byteAt(int i){
+
+	byte[] p = this.slot(i >>> this.shift);
+
+	return (null != p)?(p[i & this.mask] & 0xFF):(0);
+    }
+    protected final void copy(int i, int z, byte[] b, int o){
+
+	while (i < z){
+
+	    int x = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-x));
+	    byte[] p = this.slot(i >>> this.shift);
+	    if (null != p){
+
+		System.arraycopy(p,x,b,o,n);
+	    }
+	    else {
+		Arrays.fill(b,o,(o+n),(byte)0);
+	    }
+	    i += n;
+	    o += n;
+	}
+    }
+    private void put(int i, byte v){
+
+	if (0 != v){
+
+	    this.allocate(i >>> this.shift)[i & this.mask] = v;
+	}
+	else {
+	    byte[] p = this.slot(i >>> this.shift);
+	    if (null != p){
+
+		p[i & this.mask] = 0;
+	    }
+	}
+    }
+    /**
+     * Copy into pages, allocating a page in a hole only for a region
+     * having a non-zero octet.
+     */
+    private void put(int i, byte[] b, int o, int l){
+
+	for (int z = (i+l); i < z; ){
+
+	    int x = (i & this.mask);
+	    int n = Math.min((z-i),(this.mask+1-x));
+	    int k = (i >>> this.shift);
+
+	    byte[] p = this.slot(k);
+	    if (null != p){
+
+		System.arraycopy(b,o,p,x,n);
+	    }
+	    else if (-1 != Arrays.mismatch(b,o,(o+n),this.zero,0,n)){
+
+		System.arraycopy(b,o,this.allocate(k),x,n);
+	    }
+	    i += n;
+	    o += n;
+	}
+    }
+    private byte[] allocate(int k){
+
+	if (k >= this.pages.length){
+
+	    int size = this.pages.length;
+	    while (k >= size){
+
+		size <<= 1;
+	    }
+	    this.pages = Arrays.copyOf(this.pages,size);
+	}
+	byte[] p = this.pages[k];
+	if (null == p){
+
+	    p = new byte[this.mask+1];
+
+	    this.pages[k] = p;
+	}
+	return p;
+    }
+}
@@ -26,6 +26,10 @@ public class State
 {
 
     public int external = 0;
+    /**
+     * Octets read and written, recorded when {@link Metrics#ENABLED}.
+     */
+    public long read = 0, wrote = 0;
 
 
     protected State(){
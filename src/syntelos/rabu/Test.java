@@ -18,9 +18,39 @@
 package syntelos.rabu;
 
 import static java.lang.System.err;
-import static java.lang.System.out;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
 
 /**
  * 
@@ -34,10 +64,19 @@ public final class Test {
 	err.println();
 	err.println("    syntelos.rabu.Test <instr>*");
 	err.println();
+	err.println("    syntelos.rabu.Test [-parallel <n>] [-script <file>|-] <test.txt>*");
+	err.println();
 	err.println("Description");
 	err.println();
 	err.println("    One or more instructions from the following set, space delimited.");
 	err.println();
+	err.println("    Batch mode runs many sessions in one process.  Each line of a");
+	err.println("    script (or stdin, for '-') is a session expecting zero, and each");
+	err.println("    test file is a session having its instructions on the first line");
+	err.println("    and its expected status on the last line.  Lines starting with");
+	err.println("    '#' are ignored.  Sessions run on <n> threads, and report their");
+	err.println("    status and instruction timings.");
+	err.println();
 
 	err.println("Instruction Set");
 	err.println();
@@ -67,7 +106,44 @@ public final class Test {
 	window ("<offset> <count>","Constrain buffer to window.",Operand.INT,Operand.INT),
 	write  ("<file>","Read from buffer.",Operand.STR),
 	seek   ("<offset>","Set I/O pointer offset.",Operand.INT),
-	reset  ("","Set I/O pointer offset to zero.");
+	reset  ("","Set I/O pointer offset to zero."),
+	dump   ("<file>","Print from buffer to file, in parallel.",Operand.STR),
+	diff   ("<file>","Compare buffer from I/O pointer to file, and print differences.",Operand.STR),
+	chunk  ("<format>","Parse buffer from I/O pointer as chunks (iff|riff|png).",Operand.STR),
+	stream ("<file> <format>","Parse file incrementally as chunks (iff|riff|png).",Operand.STR,Operand.STR),
+	index  ("<octet>","Index records from I/O pointer by delimiter octet.",Operand.INT),
+	reload ("<octet> <record> <string>","Index records from I/O pointer by delimiter octet, store and load the table, and compare record to string.",Operand.INT,Operand.INT,Operand.STR),
+	inflate("<offset> <count>","Replace buffer with zlib content of region, inflated on demand.",Operand.INT,Operand.INT),
+	evict  ("<offset> <count> <page> <pages>","Replace buffer with zlib content of region, inflated on demand into a bounded cache of pages, read in reverse, and compare restarts.",Operand.INT,Operand.INT,Operand.INT,Operand.INT),
+	deflate("<file> <level>","Write buffer from I/O pointer to file as a length prefixed zlib block, and verify.",Operand.STR,Operand.INT),
+	load   ("<file> <depth> <segment>","Write file to buffer at I/O pointer, asynchronously.",Operand.STR,Operand.INT,Operand.INT),
+	store  ("<file> <depth> <segment>","Read buffer from I/O pointer to file, asynchronously.",Operand.STR,Operand.INT,Operand.INT),
+	parse  ("<directory> <format> <concurrency>","Parse files of directory named by format as chunks (iff|riff|png), in batch.",Operand.STR,Operand.STR,Operand.INT),
+	sparse ("<file> <page>","Write file to sparse buffer, allocating pages of data.",Operand.STR,Operand.INT),
+	cow    ("<offset> <count>","Replace buffer with copy on write child of region.",Operand.INT,Operand.INT),
+	set    ("<offset> <octet>","Set octet in buffer.",Operand.INT,Operand.INT),
+	commit ("","Commit copy on write buffer to its parent, and replace buffer with parent."),
+	discard("","Discard copy on write buffer, and replace buffer with parent."),
+	edit   ("","Replace buffer with editor over buffer."),
+	insert ("<offset> <octet>","Insert octet into editor.",Operand.INT,Operand.INT),
+	delete ("<offset> <count>","Delete region from editor.",Operand.INT,Operand.INT),
+	pieces ("<count>","Compare count of editor pieces.",Operand.INT),
+	input  ("<file> <format>","Read file as chunks from an input stream (iff|riff|png), and write chunks to buffer.",Operand.STR,Operand.STR),
+	encode ("<format>","Parse buffer from I/O pointer as chunks (iff|riff|png), touch each chunk, and encode chunks to buffer.",Operand.STR),
+	hash   ("<algorithm> <value>","Compare hash of buffer from I/O pointer, in place and streamed, to hex value (crc32|crc32c|adler32|xxh64).",Operand.STR,Operand.STR),
+	substring("<offset> <count> <charset>","Decode region of buffer, and compare to a copy of the region.",Operand.INT,Operand.INT,Operand.STR),
+	intern ("<offset> <count> <repeat>","Decode region of buffer via cache repeatedly, and compare.",Operand.INT,Operand.INT,Operand.INT),
+	dedup  ("<offset> <count> <repeat>","Intern region of buffer as shared content repeatedly, compare accounting, and refuse writes.",Operand.INT,Operand.INT,Operand.INT),
+	collide("<offset> <other> <count>","Intern two regions of buffer under one hash, and compare to copies of the regions.",Operand.INT,Operand.INT,Operand.INT),
+	equals ("<offset> <file>","Compare region of buffer to file, in place.",Operand.INT,Operand.STR),
+	resize ("<format> <path> <string>","Parse buffer from I/O pointer as chunks, replace content of leaf at dotted child index path with string, encode chunks to buffer, and compare clean chunks copied.",Operand.STR,Operand.STR,Operand.STR),
+	modify ("<format> <chunk> <offset>","Parse buffer from I/O pointer as chunks, invert content octet of chunk, encode chunks to buffer, and verify trailers.",Operand.STR,Operand.INT,Operand.INT),
+	layout ("<endian>","Decode records from I/O pointer, and encode records to buffer (be|le).",Operand.STR),
+	policy ("<policy>","Window policy for writes past its ceiling (reject|extend).",Operand.STR),
+	put    ("<file>","Write file to buffer at I/O pointer, within window policy.",Operand.STR),
+	type   ("<type> <endian>","Decode fixed width values (uint8..sint64|float16..float64) from I/O pointer, and encode values to buffer (be|le).",Operand.STR,Operand.STR),
+	bits   ("<endian> <start> <tail>","Read bit fields from I/O pointer at bit start, and write fields over the complement of buffer, leaving tail bits (be|le).",Operand.STR,Operand.INT,Operand.INT),
+	varint ("<format> <width>","Encode words of width (1|2|4|8) from I/O pointer as varints (uleb128|sleb128|zigzag|prefix), decode, and write words to buffer.",Operand.STR,Operand.INT);
 
 
 	private final static Object[] NARGS = new Object[]{};
@@ -194,6 +270,243 @@ public final class Test {
 		{
 		    return s.reset(this);
 		}
+	    case dump:
+		{
+		    String o = (String)operands[0];
+
+		    return s.dump(this,o);
+		}
+	    case diff:
+		{
+		    String o = (String)operands[0];
+
+		    return s.diff(this,o);
+		}
+	    case chunk:
+		{
+		    String o = (String)operands[0];
+
+		    return s.chunk(this,o);
+		}
+	    case stream:
+		{
+		    String o = (String)operands[0];
+		    String c = (String)operands[1];
+
+		    return s.stream(this,o,c);
+		}
+	    case reload:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    String x = (String)operands[2];
+
+		    return s.reload(this,o,c,x);
+		}
+	    case index:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+
+		    return s.index(this,o);
+		}
+	    case inflate:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.inflate(this,o,c);
+		}
+	    case evict:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    int x = ((Integer)operands[2]).intValue();
+		    int p = ((Integer)operands[3]).intValue();
+
+		    return s.evict(this,o,c,x,p);
+		}
+	    case deflate:
+		{
+		    String o = (String)operands[0];
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.deflate(this,o,c);
+		}
+	    case load:
+		{
+		    String o = (String)operands[0];
+		    int d = ((Integer)operands[1]).intValue();
+		    int c = ((Integer)operands[2]).intValue();
+		    return s.load(this,o,d,c);
+		}
+	    case store:
+		{
+		    String o = (String)operands[0];
+		    int d = ((Integer)operands[1]).intValue();
+		    int c = ((Integer)operands[2]).intValue();
+		    return s.store(this,o,d,c);
+		}
+	    case parse:
+		{
+		    String o = (String)operands[0];
+		    String f = (String)operands[1];
+		    int c = ((Integer)operands[2]).intValue();
+		    return s.parse(this,o,f,c);
+		}
+	    case sparse:
+		{
+		    String o = (String)operands[0];
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.sparse(this,o,c);
+		}
+	    case cow:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.cow(this,o,c);
+		}
+	    case set:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.set(this,o,c);
+		}
+	    case commit:
+		return s.commit(this);
+	    case discard:
+		return s.discard(this);
+	    case edit:
+		return s.edit(this);
+	    case insert:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.insert(this,o,c);
+		}
+	    case delete:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    return s.delete(this,o,c);
+		}
+	    case pieces:
+		{
+		    int c = ((Integer)operands[0]).intValue();
+		    return s.pieces(this,c);
+		}
+	    case encode:
+		{
+		    String o = (String)operands[0];
+
+		    return s.encode(this,o);
+		}
+	    case hash:
+		{
+		    String o = (String)operands[0];
+		    String c = (String)operands[1];
+
+		    return s.hash(this,o,c);
+		}
+	    case substring:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    String x = (String)operands[2];
+
+		    return s.substring(this,o,c,x);
+		}
+	    case intern:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    int x = ((Integer)operands[2]).intValue();
+
+		    return s.intern(this,o,c,x);
+		}
+	    case dedup:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    int x = ((Integer)operands[2]).intValue();
+
+		    return s.dedup(this,o,c,x);
+		}
+	    case collide:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    int c = ((Integer)operands[1]).intValue();
+		    int x = ((Integer)operands[2]).intValue();
+
+		    return s.collide(this,o,c,x);
+		}
+	    case equals:
+		{
+		    int o = ((Integer)operands[0]).intValue();
+		    String c = (String)operands[1];
+
+		    return s.equals(this,o,c);
+		}
+	    case resize:
+		{
+		    String o = (String)operands[0];
+		    String c = (String)operands[1];
+		    String x = (String)operands[2];
+
+		    return s.resize(this,o,c,x);
+		}
+	    case modify:
+		{
+		    String o = (String)operands[0];
+		    int c = ((Integer)operands[1]).intValue();
+		    int x = ((Integer)operands[2]).intValue();
+
+		    return s.modify(this,o,c,x);
+		}
+	    case layout:
+		{
+		    String o = (String)operands[0];
+
+		    return s.layout(this,o);
+		}
+	    case policy:
+		{
+		    String o = (String)operands[0];
+
+		    return s.policy(this,o);
+		}
+	    case put:
+		{
+		    String o = (String)operands[0];
+
+		    return s.put(this,o);
+		}
+	    case type:
+		{
+		    String o = (String)operands[0];
+		    String c = (String)operands[1];
+
+		    return s.type(this,o,c);
+		}
+	    case bits:
+		{
+		    String o = (String)operands[0];
+		    int x = ((Integer)operands[1]).intValue();
+		    int z = ((Integer)operands[2]).intValue();
+
+		    return s.bits(this,o,x,z);
+		}
+	    case varint:
+		{
+		    String o = (String)operands[0];
+		    int c = ((Integer)operands[1]).intValue();
+
+		    return s.varint(this,o,c);
+		}
+	    case input:
+		{
+		    String o = (String)operands[0];
+		    String c = (String)operands[1];
+
+		    return s.input(this,o,c);
+		}
 
 	    default:
 		throw new IllegalStateException(this.operator.name());
@@ -223,130 +536,423 @@ public final class Test {
 	}
     }
 
-    public static void main(String[] argv){
-	int argl = argv.length;
-
-	if (0 < argl){
-	    int argc = 0;
-	    String arg = null;
-	    Test test = new Test();
-	    try {
-		while (argc < argl){
-		    arg = argv[argc++];
-
-		    Operator c = Operator.valueOf(arg);
-		    Object[] o = c.operands(argv,argc,argl);
-		    {
-			argc += o.length;
-		    }
-		    Instruction i = new Instruction(c,o);
-
-		    if (! i.proc(test)){
-
-			System.exit(1);
-		    }
-		}
+    /**
+     * Record of {@link Test#layout(Instruction,String) layout}.
+     */
+    public static class Record {
 
-		System.exit(0);
-	    }
-	    catch (IllegalArgumentException unk){
+	public int uint8, uint16, sint32;
 
-		unk.printStackTrace();
+	public long sint64;
 
-		err.printf("syntelos.rabu.Test error: unrecognized operator term '%s'.%n",arg);
 
-		System.exit(1);
-	    }
-	}
-	else {
-	    usage();
+	public Record(){
+	    super();
 	}
     }
+    private final static Layout<Record> LAYOUT = new Layout.Builder<Record>(Record.class,MethodHandles.lookup())
+	.uint8("uint8").uint16("uint16").sint32("sint32").sint64("sint64").build();
 
+    /**
+     * Batch session.
+     */
+    private static class Session
+	extends Object
+	implements java.util.concurrent.Callable<Session>
+    {
+	final String name;
 
-    public Printer.Configuration pc = new Printer.Configuration();
-
-    public RandomAccessData rada;
+	final String[] argv;
 
-    public File file;
+	final int expected;
 
-    public int read = 0, wrote = 0;
+	final ByteArrayOutputStream buffer;
 
+	final Test test = new Test();
 
-    public Test(){
-	super();
-    }
+	int status;
 
+	long time;
 
-    protected boolean echo(Instruction i){
-	out.println(i);
-	/*
-	 */
-	if (null != this.file)
 
-	    out.printf("%s test file: %s, read: %d, wrote: %d.%n", i, this.file.getPath(), this.read, this.wrote);
-	else
-	    out.printf("%s test read: %d, wrote: %d.%n", i, this.read, this.wrote);
-	/*
-	 */
-	if (null != rada){
+	Session(String name, String line, int expected, boolean buffer){
+	    super();
+	    this.name = name;
+	    this.argv = line.trim().split("\\s+");
+	    this.expected = expected;
+	    if (buffer){
+		this.buffer = new ByteArrayOutputStream();
+		this.test.out = new PrintStream(this.buffer,true);
+	    }
+	    else {
+		this.buffer = null;
+	    }
+	}
 
-	    Window window = rada.window;
 
-	    Buffer buffer = rada.buffer;
+	public Session call(){
+	    long time = System.nanoTime();
+	    try {
+		this.status = this.test.run(this.argv);
+	    }
+	    catch (RuntimeException exc){
 
-	    State state = rada.state;
+		exc.printStackTrace(this.test.out);
 
-	    out.printf("%s rabu window offset: %d, length: %d.%n", i, window.delta, window.length);
-	    out.printf("%s rabu buffer length: %d, size: %d.%n", i, buffer.length,buffer.buffer.length);
-	    out.printf("%s rabu i/o pointer internal: %d, external: %d.%n", i, window.internal(state), state.external);
+		this.status = 1;
+	    }
+	    this.time = (System.nanoTime()-time);
+	    return this;
+	}
+	boolean passed(){
+	    return (this.status == this.expected);
+	}
+	void println(PrintStream out){
+	    if (null != this.buffer){
+		try {
+		    this.buffer.writeTo(out);
+		}
+		catch (IOException iox){
+		}
+	    }
+	    out.printf("(session %s) status: %d, expected: %d, time: %d us.%n",this.name,this.status,this.expected,(this.time/1000L));
+	    out.println();
 	}
-	out.println();
-
-	return true;
     }
-    protected boolean print(Instruction i){
-	/*
-	 */
-	if (null != this.rada){
-
-	    this.rada.print(out);
-
-	    out.printf("%s %n",i);
-
-	    return true;
+    /**
+     * Read script sessions from file, or from stdin for "-".
+     */
+    private static void script(String src, List<Session> sessions, boolean buffer)
+	throws IOException
+    {
+	BufferedReader in = ("-".equals(src))?(new BufferedReader(new InputStreamReader(System.in))):(new BufferedReader(new FileReader(src)));
+	try {
+	    String line;
+	    int number = 0;
+	    while (null != (line = in.readLine())){
+		number += 1;
+		line = line.trim();
+		if (0 < line.length() && '#' != line.charAt(0)){
+
+		    sessions.add(new Session(src+':'+number,line,0,buffer));
+		}
+	    }
 	}
-	else {
-	    out.printf("%s test print missing rabu.%n",i);
-	    return false;
+	finally {
+	    if (!"-".equals(src)){
+		in.close();
+	    }
 	}
     }
-    protected boolean format(Instruction i, String o, String c){
+    /**
+     * Read test file session in the format of "test.sh".
+     */
+    private static Session test(String src, boolean buffer)
+	throws IOException
+    {
+	BufferedReader in = new BufferedReader(new FileReader(src));
 	try {
-	    this.pc = new Printer.Configuration(o,c);
-
-	    out.printf("%s (%s) %n",i,this.pc);
+	    String first = null, last = null, line;
+	    while (null != (line = in.readLine())){
+		if (!line.startsWith("#")){
+		    if (null == first){
+			first = line;
+		    }
+		    last = line;
+		}
+	    }
+	    if (null != first && null != last && first != last){
 
-	    return true;
+		return new Session(src,first,Integer.parseInt(last.trim()),buffer);
+	    }
+	    else {
+		throw new IOException(String.format("test file '%s' missing command or result",src));
+	    }
 	}
-	catch (RuntimeException exc){
-
-	    exc.printStackTrace();
-
-	    out.printf("%s (%s) %n",i,exc);
-
-	    return false;
+	finally {
+	    in.close();
 	}
     }
-    protected boolean read(Instruction i, String arg){
-	File file = new File(arg);
-	if (file.isFile() && file.canRead()){
+    /**
+     * Run sessions from scripts and test files.
+     * 
+     * @return Exit status
+     */
+    public static int batch(String[] argv){
+	int threads = 1;
+	List<String> scripts = new ArrayList<String>();
+	List<String> tests = new ArrayList<String>();
 
-	    this.file = file;
+	for (int argc = 0, argl = argv.length; argc < argl; argc++){
+	    String arg = argv[argc];
+	    if ("-parallel".equals(arg) && (argc+1) < argl){
 
-	    rada = new RandomAccessData(pc);
+		threads = Math.max(1,Integer.parseInt(argv[++argc]));
+	    }
+	    else if ("-script".equals(arg) && (argc+1) < argl){
 
-	    this.read = rada.read(file);
+		scripts.add(argv[++argc]);
+	    }
+	    else if (arg.startsWith("-") && !"-".equals(arg)){
+
+		err.printf("syntelos.rabu.Test error: unrecognized option '%s'.%n",arg);
+		return 1;
+	    }
+	    else {
+		tests.add(arg);
+	    }
+	}
+
+	final boolean buffer = (1 < threads);
+	List<Session> sessions = new ArrayList<Session>();
+	try {
+	    for (String src : scripts){
+
+		script(src,sessions,buffer);
+	    }
+	    for (String src : tests){
+
+		sessions.add(test(src,buffer));
+	    }
+	}
+	catch (IOException|IllegalArgumentException exc){
+
+	    err.printf("syntelos.rabu.Test error: %s.%n",exc.getMessage());
+	    return 1;
+	}
+
+	long time = System.nanoTime();
+	int failed = 0;
+	long[] optime = new long[Operator.values().length];
+	int[] opcount = new int[optime.length];
+
+	ExecutorService exec = (buffer)?(Executors.newFixedThreadPool(threads)):(null);
+	try {
+	    List<Future<Session>> futures = new ArrayList<Future<Session>>();
+	    if (null != exec){
+		for (Session s : sessions){
+
+		    futures.add(exec.submit(s));
+		}
+	    }
+	    for (int cc = 0, count = sessions.size(); cc < count; cc++){
+		Session s;
+		if (null != exec){
+		    try {
+			s = futures.get(cc).get();
+		    }
+		    catch (Exception exc){
+			throw new IllegalStateException(exc);
+		    }
+		}
+		else {
+		    s = sessions.get(cc).call();
+		}
+		s.println(System.out);
+
+		if (!s.passed()){
+
+		    failed += 1;
+		}
+		for (int op = 0; op < optime.length; op++){
+
+		    optime[op] += s.test.time[op];
+		    opcount[op] += s.test.count[op];
+		}
+	    }
+	}
+	finally {
+	    if (null != exec){
+		exec.shutdown();
+	    }
+	}
+	time = (System.nanoTime()-time);
+
+	Operator[] ops = Operator.values();
+	for (int op = 0; op < ops.length; op++){
+	    if (0 < opcount[op]){
+
+		System.out.printf("(batch %s) count: %d, time: %d us, mean: %d us.%n",ops[op].name(),opcount[op],
+				  (optime[op]/1000L),(optime[op]/1000L/opcount[op]));
+	    }
+	}
+	System.out.printf("(batch) sessions: %d, failed: %d, threads: %d, time: %d ms.%n",sessions.size(),failed,threads,(time/1000000L));
+
+	return (0 == failed)?(0):(1);
+    }
+
+    public static void main(String[] argv){
+	int argl = argv.length;
+
+	if (0 < argl){
+
+	    if (argv[0].startsWith("-")){
+
+		System.exit(batch(argv));
+	    }
+	    else {
+		System.exit(new Test().run(argv));
+	    }
+	}
+	else {
+	    usage();
+	}
+    }
+
+
+    public Printer.Configuration pc = new Printer.Configuration();
+
+    public PrintStream out = System.out;
+    /**
+     * Instruction time (nanoseconds) and count by operator ordinal
+     */
+    public final long[] time = new long[Operator.values().length];
+
+    public final int[] count = new int[Operator.values().length];
+
+    public RandomAccessData rada;
+    /**
+     * Parent of copy on write buffer
+     */
+    public RandomAccessData parent;
+
+    public RandomAccessCopyOnWrite cow;
+
+    public RandomAccessEditor editor;
+
+    public File file;
+
+    public int read = 0, wrote = 0;
+
+
+    public Test(){
+	super();
+    }
+
+
+    /**
+     * Process an instruction list as one session.
+     * 
+     * @return Exit status
+     */
+    public int run(String[] argv){
+	int argl = argv.length;
+	int argc = 0;
+	String arg = null;
+	try {
+	    while (argc < argl){
+		arg = argv[argc++];
+
+		Operator c = Operator.valueOf(arg);
+		Object[] o = c.operands(argv,argc,argl);
+		{
+		    argc += o.length;
+		}
+		Instruction i = new Instruction(c,o);
+
+		long time = System.nanoTime();
+
+		boolean ok = i.proc(this);
+
+		this.time[c.ordinal()] += (System.nanoTime()-time);
+		this.count[c.ordinal()] += 1;
+
+		if (! ok){
+
+		    return 1;
+		}
+	    }
+	    return 0;
+	}
+	catch (IllegalArgumentException unk){
+
+	    unk.printStackTrace(this.out);
+
+	    this.out.printf("syntelos.rabu.Test error: unrecognized operator term '%s'.%n",arg);
+
+	    return 1;
+	}
+    }
+
+
+    protected boolean echo(Instruction i){
+	out.println(i);
+	/*
+	 */
+	if (null != this.file)
+
+	    out.printf("%s test file: %s, read: %d, wrote: %d.%n", i, this.file.getPath(), this.read, this.wrote);
+	else
+	    out.printf("%s test read: %d, wrote: %d.%n", i, this.read, this.wrote);
+	/*
+	 */
+	if (null != rada){
+
+	    Window window = rada.window;
+
+	    Buffer buffer = rada.buffer;
+
+	    State state = rada.state;
+
+	    out.printf("%s rabu window offset: %d, length: %d.%n", i, window.delta, window.length);
+	    out.printf("%s rabu buffer length: %d, size: %d.%n", i, buffer.length,buffer.buffer.length);
+	    out.printf("%s rabu i/o pointer internal: %d, external: %d.%n", i, window.internal(state), state.external);
+
+	    if (Metrics.ENABLED){
+
+		out.printf("%s rabu read: %d, wrote: %d.%n", i, state.read, state.wrote);
+	    }
+	}
+	if (Metrics.ENABLED){
+
+	    Metrics.INSTANCE.println(i.toString(),out);
+	}
+	out.println();
+
+	return true;
+    }
+    protected boolean print(Instruction i){
+	/*
+	 */
+	if (null != this.rada){
+
+	    this.rada.print(out);
+
+	    out.printf("%s %n",i);
+
+	    return true;
+	}
+	else {
+	    out.printf("%s test print missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean format(Instruction i, String o, String c){
+	try {
+	    this.pc = new Printer.Configuration(o,c);
+
+	    out.printf("%s (%s) %n",i,this.pc);
+
+	    return true;
+	}
+	catch (RuntimeException exc){
+
+	    exc.printStackTrace(this.out);
+
+	    out.printf("%s (%s) %n",i,exc);
+
+	    return false;
+	}
+    }
+    protected boolean read(Instruction i, String arg){
+	File file = new File(arg);
+	if (file.isFile() && file.canRead()){
+
+	    this.file = file;
+
+	    rada = new RandomAccessData(pc);
+
+	    this.read = rada.read(file);
 
 	    echo(i);
 
@@ -389,4 +995,1680 @@ public final class Test {
 
 	return true;
     }
+    protected boolean dump(Instruction i, String arg){
+	if (null != this.rada){
+	    File file = new File(arg);
+	    FileOutputStream fout = null;
+	    try {
+		fout = new FileOutputStream(file);
+
+		long time = System.nanoTime();
+
+		this.rada.print(fout.getChannel());
+
+		time = (System.nanoTime()-time);
+
+		out.printf("%s test dump file: %s, size: %d, time: %d us.%n",i,file.getPath(),file.length(),(time/1000L));
+
+		return true;
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test dump error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    finally {
+		if (null != fout){
+		    try {
+			fout.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    out.printf("%s test dump missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean diff(Instruction i, String arg){
+	File file = new File(arg);
+	if (null == this.rada){
+	    out.printf("%s test diff missing rabu.%n",i);
+	    return false;
+	}
+	else if (file.isFile() && file.canRead()){
+
+	    RandomAccessData that = new RandomAccessData(pc);
+
+	    that.read(file);
+	    that.reset();
+
+	    long time = System.nanoTime();
+
+	    java.util.List<Diff.Range> ranges = Diff.compare(this.rada,that);
+
+	    time = (System.nanoTime()-time);
+
+	    Diff.print(this.rada,that,ranges,out);
+
+	    out.printf("%s test diff file: %s, ranges: %d, time: %d us.%n",i,file.getPath(),ranges.size(),(time/1000L));
+
+	    return ranges.isEmpty();
+	}
+	else {
+	    out.printf("%s test diff file not found.%n",i);
+	    return false;
+	}
+    }
+    private static Chunk.Format format(String arg){
+	switch(arg.toLowerCase()){
+	case "iff":
+	    return Chunk.Format.IFF;
+	case "riff":
+	    return Chunk.Format.RIFF;
+	case "png":
+	    return Chunk.Format.PNG;
+	default:
+	    return null;
+	}
+    }
+    protected boolean chunk(Instruction i, String arg){
+	Chunk.Format format = format(arg);
+	if (null == format){
+	    out.printf("%s test chunk unrecognized format.%n",i);
+	    return false;
+	}
+	else if (null != this.rada){
+	    try {
+		int bytes = this.rada.available();
+
+		long time = System.nanoTime();
+
+		Chunk root = Chunk.parse(format,this.rada);
+
+		time = (System.nanoTime()-time);
+
+		for (int cc = 0, count = root.count(); cc < count; cc++){
+
+		    root.child(cc).println(0,out);
+		}
+
+		out.printf("%s test chunks: %d, bytes: %d, time: %d us, rate: %.1f MB/s.%n", i, chunks(root), bytes,
+			   (time/1000L), ((bytes*1e3)/Math.max(1L,time)));
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test chunk error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test chunk missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean parse(Instruction i, String arg, String fmt, int concurrency){
+	final Chunk.Format format = format(fmt);
+	File dir = new File(arg);
+	if (null == format){
+	    out.printf("%s test parse unrecognized format.%n",i);
+	    return false;
+	}
+	else if (dir.isDirectory()){
+	    DirectoryStream<Path> files = null;
+	    try {
+		files = Files.newDirectoryStream(dir.toPath(),"*."+fmt.toLowerCase());
+
+		Batch batch = new Batch(pc,format.endian,concurrency,Batch.RETAIN);
+
+		Batch.Report report = batch.run(files.iterator(),new Batch.Parser(){
+			public Component parse(Path file, RandomAccessData data){
+			    if (Chunk.Format.PNG == format){
+
+				data.seek(8);
+			    }
+			    return Chunk.parse(format,data);
+			}
+		    });
+		report.println(i.toString(),out);
+
+		return (0L < report.files && 0L == report.failed);
+	    }
+	    catch (IOException | InterruptedException exc){
+
+		out.printf("%s test parse error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    finally {
+		if (null != files){
+		    try {
+			files.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    out.printf("%s test parse directory not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean sparse(Instruction i, String arg, int page){
+	File file = new File(arg);
+	if (file.isFile() && file.canRead()){
+	    try {
+		RandomAccessSparse sparse = new RandomAccessSparse(pc,page);
+
+		this.file = file;
+
+		this.read = sparse.read(file);
+
+		this.rada = new RandomAccessData(Endian.BE,sparse);
+
+		out.printf("%s test sparse file: %s, read: %d, pages: %d, extents: %d, resident: %d.%n",i,
+			   file.getPath(),this.read,sparse.pages(),sparse.extents(),sparse.resident());
+
+		return (0 < this.read);
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test sparse error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test sparse file not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean cow(Instruction i, int x, int q){
+	if (null != this.rada){
+	    try {
+		RandomAccessCopyOnWrite cow = new RandomAccessCopyOnWrite(this.rada,x,q);
+
+		out.printf("%s test cow offset: %d, length: %d.%n", i, x, cow.available());
+
+		this.parent = this.rada;
+		this.cow = cow;
+		this.rada = new RandomAccessData(this.rada.endian,cow);
+
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test cow error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test cow missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean set(Instruction i, int x, int v){
+	if (null != this.rada){
+	    try {
+		return this.rada.set(x,v);
+	    }
+	    catch (IllegalArgumentException|IllegalStateException exc){
+
+		out.printf("%s test set error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test set missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean commit(Instruction i){
+	if (null != this.cow){
+
+	    int dirty = this.cow.dirty();
+
+	    int c = this.cow.commit();
+
+	    out.printf("%s test commit pages: %d, octets: %d.%n",i,dirty,c);
+
+	    this.rada = this.parent;
+	    this.parent = null;
+	    this.cow = null;
+
+	    return true;
+	}
+	else {
+	    out.printf("%s test commit missing cow.%n",i);
+	    return false;
+	}
+    }
+    protected boolean discard(Instruction i){
+	if (null != this.cow){
+
+	    out.printf("%s test discard pages: %d.%n",i,this.cow.dirty());
+
+	    this.cow.discard();
+
+	    this.rada = this.parent;
+	    this.parent = null;
+	    this.cow = null;
+
+	    return true;
+	}
+	else {
+	    out.printf("%s test discard missing cow.%n",i);
+	    return false;
+	}
+    }
+    protected boolean edit(Instruction i){
+	if (null != this.rada){
+
+	    this.editor = new RandomAccessEditor(this.rada);
+
+	    this.rada = new RandomAccessData(this.rada.endian,this.editor);
+
+	    out.printf("%s test edit length: %d.%n",i,this.editor.length());
+
+	    return true;
+	}
+	else {
+	    out.printf("%s test edit missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean insert(Instruction i, int x, int v){
+	if (null != this.editor){
+
+	    return this.editor.insert(x,new byte[]{(byte)v},0,1);
+	}
+	else {
+	    out.printf("%s test insert missing editor.%n",i);
+	    return false;
+	}
+    }
+    protected boolean delete(Instruction i, int x, int q){
+	if (null != this.editor){
+
+	    return this.editor.delete(x,q);
+	}
+	else {
+	    out.printf("%s test delete missing editor.%n",i);
+	    return false;
+	}
+    }
+    protected boolean pieces(Instruction i, int count){
+	if (null != this.editor){
+
+	    int pieces = this.editor.pieces();
+
+	    out.printf("%s test pieces: %d.%n",i,pieces);
+
+	    return (count == pieces);
+	}
+	else {
+	    out.printf("%s test pieces missing editor.%n",i);
+	    return false;
+	}
+    }
+    protected boolean encode(Instruction i, String arg){
+	Chunk.Format format = format(arg);
+	if (null == format){
+	    out.printf("%s test encode unrecognized format.%n",i);
+	    return false;
+	}
+	else if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+
+		Chunk root = Chunk.parse(format,this.rada);
+
+		int touched = touch(root);
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		LocationOutput output = new LocationOutput(buffer);
+		/*
+		 * Content preceding the I/O pointer, as a file signature
+		 */
+		if (0 < x){
+
+		    this.rada.copy(0,x,output);
+		}
+		long time = System.nanoTime();
+
+		root.write(output);
+
+		time = (System.nanoTime()-time);
+
+		byte[] b = buffer.toByteArray();
+
+		this.rada = new RandomAccessData(pc,format.endian,b,0,b.length);
+
+		out.printf("%s test encode chunks: %d, touched: %d, bytes: %d, time: %d us.%n", i, chunks(root), touched,
+			   b.length, (time/1000L));
+		return true;
+	    }
+	    catch (IOException|IllegalArgumentException exc){
+
+		out.printf("%s test encode error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test encode missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean hash(Instruction i, String arg, String value){
+	if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+		int q = this.rada.available();
+
+		long expected = Long.parseUnsignedLong(value,16);
+		long hash;
+		Checksum checksum;
+
+		switch(arg.toLowerCase()){
+		case "crc32":
+		    hash = (Hash.crc32(this.rada,x,q) & 0xFFFFFFFFL);
+		    checksum = new CRC32();
+		    break;
+		case "crc32c":
+		    hash = (Hash.crc32c(this.rada,x,q) & 0xFFFFFFFFL);
+		    checksum = new CRC32C();
+		    break;
+		case "adler32":
+		    hash = (Hash.adler32(this.rada,x,q) & 0xFFFFFFFFL);
+		    checksum = new Adler32();
+		    break;
+		case "xxh64":
+		    hash = Hash.xxh64(this.rada,x,q);
+		    checksum = new XXHash64();
+		    break;
+		default:
+		    out.printf("%s test hash unrecognized algorithm.%n",i);
+		    return false;
+		}
+		/*
+		 * Streamed
+		 */
+		ChecksumOutput stream = new ChecksumOutput(new LocationOutput(OutputStream.nullOutputStream()),checksum);
+
+		this.rada.copy(x,q,stream);
+
+		long streamed = stream.checksum.getValue();
+
+		out.printf("%s test hash offset: %d, length: %d, hash: %x, streamed: %x.%n",i,x,q,hash,streamed);
+
+		return (expected == hash && expected == streamed);
+	    }
+	    catch (IOException|IllegalArgumentException exc){
+
+		out.printf("%s test hash error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test hash missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean substring(Instruction i, int ofs, int len, String arg){
+	if (null != this.rada){
+	    try {
+		Charset cs = Charset.forName(arg);
+
+		String string = this.rada.substring(ofs,len,cs);
+
+		byte[] copy = this.rada.copy(ofs,len);
+
+		boolean equal = (null != copy && string.equals(new String(copy,cs)));
+
+		out.printf("%s test substring: \"%s\", equal: %b.%n",i,string,equal);
+
+		return equal;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test substring error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test substring missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean intern(Instruction i, int ofs, int len, int repeat){
+	if (null != this.rada){
+	    try {
+		Intern cache = new Intern();
+
+		String first = this.rada.substring(ofs,len,cache);
+
+		boolean equal = first.equals(this.rada.substring(ofs,len));
+		boolean shared = true;
+
+		for (int cc = 1; cc < repeat; cc++){
+
+		    String string = this.rada.substring(ofs,len,cache);
+
+		    equal = (equal && first.equals(string));
+		    shared = (shared && first == string);
+		}
+		out.printf("%s test intern: \"%s\", equal: %b, shared: %b.%n",i,first,equal,shared);
+		/*
+		 * Content longer than the limit is not cached
+		 */
+		return (equal && shared == (len <= cache.limit));
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test intern error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test intern missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean dedup(Instruction i, int ofs, int len, int repeat){
+	if (null != this.rada){
+	    try {
+		Dedup store = new Dedup(pc);
+
+		byte[] expected = this.rada.copy(ofs,len);
+
+		boolean equal = (null != expected);
+
+		RandomAccessBuffer shared = null;
+
+		for (int cc = 0; cc < repeat; cc++){
+
+		    shared = store.intern(this.rada,ofs,len);
+
+		    equal = (equal && Arrays.equals(expected,shared.copy(0,len)));
+		}
+		boolean accounting = (1 == store.size() && 1 == store.misses() && (repeat-1) == store.hits() &&
+				      len == store.resident() && ((long)(repeat-1)*len) == store.saved());
+		/*
+		 * Shared content refuses writes
+		 */
+		boolean refused = (-1 == shared.buffer.writable(shared.window,shared.state,0,1) &&
+				   (!shared.write(0)) && (!shared.write(expected,0,len)));
+		try {
+		    shared.set(0,0);
+		    refused = false;
+		}
+		catch (IllegalStateException exc){
+		}
+		try {
+		    shared.set(0,expected,0,len);
+		    refused = false;
+		}
+		catch (IllegalStateException exc){
+		}
+		equal = (equal && Arrays.equals(expected,shared.copy(0,len)));
+
+		out.printf("%s test %s, equal: %b, accounting: %b, refused: %b.%n",i,store,equal,accounting,refused);
+
+		return (equal && accounting && refused);
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test dedup error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test dedup missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean collide(Instruction i, int ofs, int other, int len){
+	if (null != this.rada){
+	    try {
+		/*
+		 * Every region of a length shares one key
+		 */
+		Dedup store = new Dedup(pc){
+			protected long hash(RandomAccessBuffer r, int x, int q){
+
+			    return 0L;
+			}
+		    };
+		byte[] a = this.rada.copy(ofs,len);
+		byte[] b = this.rada.copy(other,len);
+
+		RandomAccessBuffer first = store.intern(this.rada,ofs,len);
+		RandomAccessBuffer second = store.intern(this.rada,other,len);
+		RandomAccessBuffer third = store.intern(this.rada,ofs,len);
+
+		boolean distinct = (null != a && null != b && (!Arrays.equals(a,b)));
+
+		boolean equal = (Arrays.equals(a,first.copy(0,len)) &&
+				 Arrays.equals(b,second.copy(0,len)) &&
+				 Arrays.equals(a,third.copy(0,len)));
+
+		boolean shared = (first.buffer == third.buffer && first.buffer != second.buffer);
+
+		boolean accounting = (1 == store.size() && 2 == store.misses() && 1 == store.hits());
+
+		out.printf("%s test collide %s, equal: %b, shared: %b, accounting: %b.%n",i,store,equal,shared,accounting);
+
+		return (distinct && equal && shared && accounting);
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test collide error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test collide missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean equals(Instruction i, int ofs, String arg){
+	File file = new File(arg);
+	if (null == this.rada){
+	    out.printf("%s test equals missing rabu.%n",i);
+	    return false;
+	}
+	else if (file.isFile() && file.canRead()){
+	    try {
+		boolean equal = this.rada.equals(ofs,Files.readAllBytes(file.toPath()));
+
+		out.printf("%s test equals file: %s, offset: %d, equal: %b.%n",i,file.getPath(),ofs,equal);
+
+		return equal;
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test equals error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test equals file not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean resize(Instruction i, String arg, String path, String string){
+	Chunk.Format format = format(arg);
+	if (null == format){
+	    out.printf("%s test resize unrecognized format.%n",i);
+	    return false;
+	}
+	else if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+
+		Chunk root = Chunk.parse(format,this.rada);
+
+		Chunk leaf = root;
+		for (String index : path.split("\\.")){
+
+		    leaf = (Chunk)leaf.child(Integer.parseInt(index));
+		}
+		/*
+		 * Derive ancestor lengths over the touched leaf, before
+		 * it is resized
+		 */
+		leaf.data(leaf.data());
+
+		int length = root.length();
+
+		byte[] b = string.getBytes(Charset.forName("US-ASCII"));
+
+		leaf.data(new RandomAccessData(pc,format.endian,b,0,b.length));
+		/*
+		 * The leaf and its ancestors are dirty
+		 */
+		int touched = dirty(root);
+
+		int depth = 0;
+		for (Container c = leaf; null != c; c = c.parent()){
+
+		    depth += 1;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		LocationOutput output = new LocationOutput(buffer);
+
+		if (0 < x){
+
+		    this.rada.copy(0,x,output);
+		}
+		root.write(output);
+		/*
+		 * Clean chunks are copied from their sources, and every
+		 * chunk is clean once written
+		 */
+		int copied = copied(root);
+
+		int clean = (chunks(root)+1-dirty(root));
+
+		b = buffer.toByteArray();
+		/*
+		 * Written again, having no source for encoded chunks
+		 */
+		buffer = new ByteArrayOutputStream();
+
+		output = new LocationOutput(buffer);
+
+		if (0 < x){
+
+		    this.rada.copy(0,x,output);
+		}
+		root.write(output);
+
+		boolean rewrite = Arrays.equals(b,buffer.toByteArray());
+
+		this.rada = new RandomAccessData(pc,format.endian,b,0,b.length);
+
+		boolean success = (touched == depth && copied == (chunks(root)+1-depth) && clean == (chunks(root)+1) && rewrite);
+
+		out.printf("%s test resize chunks: %d, touched: %d, copied: %d, clean: %d, rewrite: %b, length: %d, bytes: %d.%n", i, chunks(root), touched,
+			   copied, clean, rewrite, length, b.length);
+		return success;
+	    }
+	    catch (IOException|IllegalArgumentException|IndexOutOfBoundsException|ClassCastException exc){
+
+		out.printf("%s test resize error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test resize missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean modify(Instruction i, String arg, int index, int ofs){
+	Chunk.Format format = format(arg);
+	if (null == format){
+	    out.printf("%s test modify unrecognized format.%n",i);
+	    return false;
+	}
+	else if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+
+		Chunk root = Chunk.parse(format,this.rada);
+
+		Chunk chunk = (Chunk)root.child(index);
+
+		RandomAccessBuffer data = chunk.data();
+
+		byte[] b = data.copy(0,data.available());
+
+		b[ofs] ^= 0xFF;
+
+		chunk.data(new RandomAccessData(pc,format.endian,b,0,b.length));
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		LocationOutput output = new LocationOutput(buffer);
+
+		if (0 < x){
+
+		    this.rada.copy(0,x,output);
+		}
+		root.write(output);
+
+		b = buffer.toByteArray();
+
+		this.rada = new RandomAccessData(pc,format.endian,b,0,b.length);
+		/*
+		 * Parse and verify the output
+		 */
+		this.rada.seek(x);
+
+		root = Chunk.parse(format,this.rada);
+
+		this.rada.reset();
+
+		int failed = verify(root);
+
+		out.printf("%s test modify chunk: %s, offset: %d, chunks: %d, failed: %d.%n", i, chunk.name(), ofs,
+			   chunks(root), failed);
+
+		return (0 == failed);
+	    }
+	    catch (IOException|IllegalArgumentException|IndexOutOfBoundsException|ClassCastException exc){
+
+		out.printf("%s test modify error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test modify missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean layout(Instruction i, String arg){
+	Endian endian;
+	try {
+	    endian = Endian.valueOf(arg.toUpperCase());
+	}
+	catch (IllegalArgumentException exc){
+	    out.printf("%s test layout unrecognized endian.%n",i);
+	    return false;
+	}
+	if (null != this.rada){
+	    try {
+		RandomAccessData src = new RandomAccessData(endian,this.rada);
+
+		int x = this.rada.offset();
+		int q = this.rada.available();
+		int z = (x+q);
+		int size = LAYOUT.size;
+
+		RandomAccessData tgt = new RandomAccessData(pc,endian,new byte[q],0,q);
+
+		Record record = new Record();
+		int count = 0;
+
+		long time = System.nanoTime();
+
+		for (; (x+size) <= z; x += size, count++){
+
+		    LAYOUT.encode(LAYOUT.decode(src,x,record),tgt,(q-(z-x)));
+		}
+		time = (System.nanoTime()-time);
+		/*
+		 * Remainder following records
+		 */
+		if (x < z){
+
+		    tgt.set((q-(z-x)),src.copy(x,(z-x)),0,(z-x));
+		}
+		this.rada = tgt;
+
+		out.printf("%s test layout records: %d, size: %d, time: %d us.%n",i,count,size,(time/1000L));
+
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test layout error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test layout missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean policy(Instruction i, String arg){
+	if (null != this.rada){
+	    try {
+		this.rada.window.policy = Window.Policy.valueOf(arg.toUpperCase());
+
+		return echo(i);
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test policy unrecognized policy.%n",i);
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test policy missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean put(Instruction i, String arg){
+	File file = new File(arg);
+	if (null == this.rada){
+	    out.printf("%s test put missing rabu.%n",i);
+	    return false;
+	}
+	else if (file.isFile() && file.canRead()){
+
+	    this.file = file;
+	    try {
+		byte[] b = Files.readAllBytes(file.toPath());
+
+		boolean written = this.rada.write(b,0,b.length);
+
+		out.printf("%s test put file: %s, length: %d, written: %b.%n",i,file.getPath(),b.length,written);
+
+		echo(i);
+
+		return written;
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test put error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test put file not found.%n",i);
+	    return false;
+	}
+    }
+    /**
+     * Each fixed width value is decoded by its getter and by its
+     * stream reader, and encoded by its setter, its stream writer,
+     * and its stream to buffer copy.  The latter replaces the buffer.
+     */
+    protected boolean type(Instruction i, String arg, String end){
+	Endian endian;
+	try {
+	    endian = Endian.valueOf(end.toUpperCase());
+	}
+	catch (IllegalArgumentException exc){
+	    out.printf("%s test type unrecognized endian.%n",i);
+	    return false;
+	}
+	Method get, set, encode, read, write;
+	try {
+	    get = RandomAccessData.class.getMethod(arg,int.class);
+	    Class<?> type = get.getReturnType();
+	    set = RandomAccessData.class.getMethod(arg,int.class,type);
+	    encode = RandomAccessData.class.getMethod(arg,type,OutputStream.class);
+	    read = RandomAccessData.class.getMethod(arg,InputStream.class);
+	    write = RandomAccessData.class.getMethod(arg,OutputStream.class);
+	}
+	catch (NoSuchMethodException exc){
+	    out.printf("%s test type unrecognized type.%n",i);
+	    return false;
+	}
+	int width = (Integer.parseInt(arg.replaceAll("[a-z]","")) >>> 3);
+
+	if (null != this.rada){
+	    try {
+		RandomAccessData src = new RandomAccessData(endian,this.rada);
+
+		int x = src.offset();
+		int q = src.available();
+		int n = (q/width);
+
+		Object[] values = new Object[n];
+
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+		RandomAccessData fixed = new RandomAccessData(pc,endian,new byte[Math.max(1,q)],0,Math.max(1,q));
+
+		long time = System.nanoTime();
+
+		for (int cc = 0; cc < n; cc++){
+		    int ofs = (x+(cc*width));
+		    values[cc] = get.invoke(src,ofs);
+		    encode.invoke(src,values[cc],encoded);
+		    set.invoke(fixed,(cc*width),values[cc]);
+		}
+		for (int cc = 0; cc < n; cc++){
+		    if (!values[cc].equals(write.invoke(src,written))){
+
+			out.printf("%s test type error: value at %d.%n",i,(x+(cc*width)));
+			return false;
+		    }
+		}
+		RandomAccessData tgt = new RandomAccessData(pc,endian);
+		InputStream in = new ByteArrayInputStream(encoded.toByteArray());
+		for (int cc = 0; cc < n; cc++){
+		    read.invoke(tgt,in);
+		}
+		time = (System.nanoTime()-time);
+
+		if (!Arrays.equals(encoded.toByteArray(),written.toByteArray()) ||
+		    (0 < n && !Arrays.equals(fixed.copy(0,(n*width)),tgt.copy(0,(n*width)))))
+		{
+		    out.printf("%s test type error: encodings differ.%n",i);
+		    return false;
+		}
+		/*
+		 * Remainder following values
+		 */
+		int r = (q-(n*width));
+		if (0 < r){
+
+		    tgt.write(src.copy((x+(n*width)),r),0,r);
+		}
+		this.rada = tgt;
+
+		out.printf("%s test type values: %d, width: %d, time: %d us.%n",i,n,width,(time/1000L));
+
+		return true;
+	    }
+	    catch (InvocationTargetException exc){
+
+		out.printf("%s test type error: %s.%n",i,exc.getCause());
+		return false;
+	    }
+	    catch (IllegalAccessException|IllegalArgumentException exc){
+
+		out.printf("%s test type error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test type missing rabu.%n",i);
+	    return false;
+	}
+    }
+    /**
+     * Fields of each width from one to sixty four bits, unsigned and
+     * signed, are read and written.  The writer flushes into a
+     * partly written byte after the first fields, and at the end of
+     * the fields.  The target is the complement of the source, so
+     * that each bit is written, except the tail bits which are the
+     * source bits to be merged by the final flush.
+     */
+    protected boolean bits(Instruction i, String arg, int start, int tail){
+	Endian order;
+	try {
+	    order = Endian.valueOf(arg.toUpperCase());
+	}
+	catch (IllegalArgumentException exc){
+	    out.printf("%s test bits unrecognized endian.%n",i);
+	    return false;
+	}
+	if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+		int q = this.rada.available();
+		long total = ((long)q << 3);
+
+		if (0 > start || 64 < start || 0 > tail || (start+tail) > total){
+
+		    out.printf("%s test bits error: start: %d, tail: %d.%n",i,start,tail);
+		    return false;
+		}
+		byte[] b = this.rada.copy(x,q);
+		byte[] m = new byte[q];
+		for (int cc = 0; cc < q; cc++){
+		    m[cc] = (byte)~b[cc];
+		}
+		for (long p = (total-tail); p < total; p++){
+		    int k = (int)(p >>> 3);
+		    int bit = (Endian.BE == order)?(0x80 >>> (p & 7)):(1 << (p & 7));
+		    m[k] = (byte)((m[k] & ~bit)|(b[k] & bit));
+		}
+		RandomAccessData tgt = new RandomAccessData(pc,m,0,q);
+
+		BitReader reader = new BitReader(this.rada,x,q,order);
+		BitWriter writer = new BitWriter(tgt,0,q,order);
+		/*
+		 * Leading bits, then fields from an unaligned start
+		 */
+		writer.uint(reader.uint(start),start);
+
+		reader.seek(start);
+
+		int fields = 0, negative = 0;
+
+		long time = System.nanoTime();
+
+		for (int n; 0 < (n = Math.min((((fields*37) & 63)+1),(int)(reader.available()-tail))); fields++){
+
+		    if (0 != (fields & 1)){
+
+			long v = reader.sint(n);
+
+			if (64 > n && (v < -(1L << (n-1)) || v >= (1L << (n-1)))){
+
+			    out.printf("%s test bits error: sint %d at %d.%n",i,v,(reader.position()-n));
+			    return false;
+			}
+			else if (0 > v){
+			    negative += 1;
+			}
+			writer.sint(v,n);
+		    }
+		    else {
+			writer.uint(reader.uint(n),n);
+		    }
+		    if (7 == fields){
+			writer.flush();
+		    }
+		}
+		writer.flush();
+
+		time = (System.nanoTime()-time);
+
+		if (writer.position() != (total-tail)){
+
+		    out.printf("%s test bits error: position %d.%n",i,writer.position());
+		    return false;
+		}
+		this.rada = tgt;
+
+		out.printf("%s test bits fields: %d, negative: %d, time: %d us.%n",i,fields,negative,(time/1000L));
+
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test bits error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test bits missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean varint(Instruction i, String arg, int width){
+	Varint.Format format;
+	try {
+	    format = Varint.Format.valueOf(arg.toUpperCase());
+	}
+	catch (IllegalArgumentException exc){
+	    out.printf("%s test varint unrecognized format.%n",i);
+	    return false;
+	}
+	if (1 != width && 2 != width && 4 != width && 8 != width){
+	    out.printf("%s test varint unrecognized width.%n",i);
+	    return false;
+	}
+	else if (null != this.rada){
+	    try {
+		int x = this.rada.offset();
+		int q = this.rada.available();
+		int n = (q/width);
+		/*
+		 * Words from I/O pointer
+		 */
+		long[] words = new long[n];
+		for (int cc = 0; cc < n; cc++){
+		    int ofs = (x+(cc*width));
+		    switch(width){
+		    case 1:
+			words[cc] = this.rada.uint8(ofs);
+			break;
+		    case 2:
+			words[cc] = this.rada.uint16(ofs);
+			break;
+		    case 4:
+			words[cc] = this.rada.uint32(ofs);
+			break;
+		    default:
+			words[cc] = this.rada.sint64(ofs);
+			break;
+		    }
+		}
+		long time = System.nanoTime();
+
+		RandomAccessData enc = new RandomAccessData(pc,new byte[10*Math.max(1,n)],0,(10*Math.max(1,n)));
+
+		int encoded = new Varint(enc,0,enc.length()).write(format,words,0,n);
+
+		long[] decoded = new long[n];
+
+		Varint dec = new Varint(enc,0,encoded);
+
+		dec.read(format,decoded,0,n);
+
+		time = (System.nanoTime()-time);
+
+		if (0 != dec.available()){
+
+		    out.printf("%s test varint error: encoded: %d, remaining: %d.%n",i,encoded,dec.available());
+		    return false;
+		}
+		/*
+		 * Words to buffer, followed by the remainder
+		 */
+		RandomAccessData tgt = new RandomAccessData(pc,new byte[Math.max(1,q)],0,Math.max(1,q));
+		for (int cc = 0; cc < n; cc++){
+		    int ofs = (cc*width);
+		    switch(width){
+		    case 1:
+			tgt.uint8(ofs,(int)decoded[cc]);
+			break;
+		    case 2:
+			tgt.uint16(ofs,(int)decoded[cc]);
+			break;
+		    case 4:
+			tgt.uint32(ofs,decoded[cc]);
+			break;
+		    default:
+			tgt.sint64(ofs,decoded[cc]);
+			break;
+		    }
+		}
+		int r = (q-(n*width));
+		if (0 < r){
+
+		    tgt.set((n*width),this.rada.copy((x+(n*width)),r),0,r);
+		}
+		this.rada = tgt;
+
+		out.printf("%s test varint words: %d, width: %d, encoded: %d, time: %d us.%n",i,n,width,encoded,(time/1000L));
+
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test varint error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test varint missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean input(Instruction i, String arg, String fmt){
+	Chunk.Format format = format(fmt);
+	File file = new File(arg);
+	if (null == format){
+	    out.printf("%s test input unrecognized format.%n",i);
+	    return false;
+	}
+	else if (file.isFile() && file.canRead()){
+
+	    this.file = file;
+
+	    LocationInput in = null;
+	    try {
+		in = new LocationInput(new FileInputStream(file));
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		LocationOutput output = new LocationOutput(buffer);
+
+		if (Chunk.Format.PNG == format){
+		    /*
+		     * File signature
+		     */
+		    byte[] signature = new byte[8];
+		    if (8 == in.read(signature,0,8)){
+
+			output.write(signature,0,8);
+		    }
+		}
+		long time = System.nanoTime();
+
+		Chunk root = Chunk.parse(format,new RandomAccessData(pc,format.endian));
+
+		root.read(in);
+
+		time = (System.nanoTime()-time);
+
+		this.read = (int)in.offset();
+
+		for (int cc = 0, count = root.count(); cc < count; cc++){
+
+		    root.child(cc).println(0,out);
+		}
+		root.write(output);
+
+		byte[] b = buffer.toByteArray();
+
+		this.rada = new RandomAccessData(pc,format.endian,b,0,b.length);
+
+		out.printf("%s test chunks: %d, bytes: %d, time: %d us, rate: %.1f MB/s.%n", i, chunks(root), this.read,
+			   (time/1000L), ((this.read*1e3)/Math.max(1L,time)));
+		return true;
+	    }
+	    catch (IOException|IllegalArgumentException exc){
+
+		out.printf("%s test input error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    finally {
+		if (null != in){
+		    try {
+			in.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    out.printf("%s test input file not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean stream(Instruction i, String arg, String fmt){
+	Chunk.Format format = format(fmt);
+	File file = new File(arg);
+	if (null == format){
+	    out.printf("%s test stream unrecognized format.%n",i);
+	    return false;
+	}
+	else if (file.isFile() && file.canRead()){
+
+	    this.file = file;
+
+	    final int[] count = new int[1];
+
+	    ChunkReader reader = new ChunkReader(pc,format,new ChunkReader.Handler(){
+		    public void open(Chunk c, int depth){
+			count[0] += 1;
+			out.printf("%"+(2*depth+1)+"s%s offset: %d, length: %d%n","",c.name(),c.offset(),c.length());
+		    }
+		    public void chunk(Chunk c, int depth){
+			count[0] += 1;
+			out.printf("%"+(2*depth+1)+"s%s offset: %d, length: %d%n","",c.name(),c.offset(),c.length());
+		    }
+		    public void close(Chunk c, int depth){
+		    }
+		});
+	    if (Chunk.Format.PNG == format){
+		/*
+		 * File signature
+		 */
+		reader.skip(8);
+	    }
+	    FileInputStream in = null;
+	    try {
+		in = new FileInputStream(file);
+
+		long time = System.nanoTime();
+
+		this.read = (int)reader.feed(in);
+
+		time = (System.nanoTime()-time);
+
+		out.printf("%s test chunks: %d, bytes: %d, peak buffer: %d, time: %d us, rate: %.1f MB/s.%n", i, count[0], this.read,
+			   reader.peak(), (time/1000L), ((this.read*1e3)/Math.max(1L,time)));
+		return true;
+	    }
+	    catch (IOException|IllegalArgumentException exc){
+
+		out.printf("%s test stream error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    finally {
+		if (null != in){
+		    try {
+			in.close();
+		    }
+		    catch (Throwable t){
+		    }
+		}
+	    }
+	}
+	else {
+	    out.printf("%s test stream file not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean index(Instruction i, int delimiter){
+	if (null != this.rada){
+	    try {
+		long time = System.nanoTime();
+
+		Index index = Index.build(this.rada,delimiter);
+
+		time = (System.nanoTime()-time);
+
+		int count = index.count();
+		int longest = 0;
+		for (int n = 0; n < count; n++){
+
+		    longest = Math.max(longest,index.length(n));
+		}
+		out.printf("%s test index records: %d, longest: %d, bytes: %d, time: %d us.%n", i, count, longest,
+			   (index.to-index.from), (time/1000L));
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test index error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test index missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean reload(Instruction i, int delimiter, int record, String expected){
+	if (null != this.rada){
+	    try {
+		Index index = Index.build(this.rada,delimiter);
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		index.write(buffer);
+
+		byte[] table = buffer.toByteArray();
+
+		Index loaded = Index.read(new ByteArrayInputStream(table),this.rada);
+
+		boolean equal = (index.count() == loaded.count() && index.from == loaded.from && index.to == loaded.to &&
+				 index.terminated == loaded.terminated && index.hash == loaded.hash);
+
+		for (int n = 0, count = index.count(); equal && n < count; n++){
+
+		    equal = (index.start(n) == loaded.start(n) && index.length(n) == loaded.length(n));
+		}
+		/*
+		 * Record content
+		 */
+		RandomAccessBuffer content = loaded.record(this.rada,record);
+
+		String string = (null != content)?(content.substring(0,content.available())):("");
+
+		equal = (equal && expected.equals(string));
+		/*
+		 * Changed source
+		 */
+		byte[] b = Arrays.copyOf(this.rada.buffer.buffer,this.rada.length());
+
+		b[this.rada.window.internal(index.start(record))] ^= 0xFF;
+
+		RandomAccessData changed = new RandomAccessData(new RandomAccessData(pc,b,0,b.length),this.rada.window);
+
+		boolean rejected = (!loaded.valid(changed));
+		/*
+		 * Offsets out of order
+		 */
+		if (1 < index.count()){
+
+		    System.arraycopy(table,(table.length-(index.count() << 2)),table,(table.length-((index.count()-1) << 2)),4);
+		    try {
+			Index.read(new ByteArrayInputStream(table));
+
+			rejected = false;
+		    }
+		    catch (IOException exc){
+		    }
+		}
+		out.printf("%s test reload records: %d, record: %d, \"%s\", equal: %b, rejected: %b.%n",i,loaded.count(),record,string,equal,rejected);
+
+		return (equal && rejected);
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test reload error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test reload error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test reload missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean inflate(Instruction i, int x, int q){
+	if (null != this.rada){
+	    try {
+		RandomAccessInflate inflate = new RandomAccessInflate(this.rada,x,q,false);
+
+		int total = inflate.available();
+
+		out.printf("%s test inflate compressed: %d, inflated: %d, pages: %d.%n", i, q, total, inflate.pages());
+
+		this.rada = new RandomAccessData(this.rada.endian,inflate);
+
+		return true;
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test inflate error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test inflate missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean evict(Instruction i, int x, int q, int page, int pages){
+	if (null != this.rada){
+	    try {
+		RandomAccessInflate whole = new RandomAccessInflate(this.rada,x,q,false);
+
+		byte[] expected = whole.copy(0,whole.available());
+
+		RandomAccessInflate inflate = new RandomAccessInflate(this.rada,x,q,false,page,pages);
+
+		int total = inflate.available();
+		/*
+		 * Pages evicted from the cache are inflated again from
+		 * the start of the stream
+		 */
+		boolean equal = (null != expected && total == expected.length);
+
+		for (int z = total; equal && 0 < z; z -= page){
+
+		    int o = Math.max(0,(z-page));
+
+		    equal = Arrays.equals(expected,o,z,inflate.copy(o,(z-o)),0,(z-o));
+		}
+		int restarts = inflate.restarts();
+
+		out.printf("%s test evict compressed: %d, inflated: %d, page: %d, pages: %d, restarts: %d, equal: %b.%n", i, q, total,
+			   page, inflate.pages(), restarts, equal);
+
+		this.rada = new RandomAccessData(this.rada.endian,inflate);
+
+		return (equal && inflate.pages() <= pages && 0 < restarts);
+	    }
+	    catch (IllegalArgumentException exc){
+
+		out.printf("%s test evict error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test evict missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean deflate(Instruction i, String arg, int level){
+	if (null != this.rada){
+	    File file = new File(arg);
+	    int x = this.rada.offset();
+	    int q = this.rada.available();
+	    long compressed;
+	    long time = System.nanoTime();
+	    try {
+		ChannelOutput channel = new ChannelOutput(FileChannel.open(file.toPath(),StandardOpenOption.CREATE,StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.WRITE));
+		try {
+		    channel.write(new byte[4],0,4);
+
+		    DeflateOutput deflate = new DeflateOutput(channel,level,false,0L,4,Endian.BE,0L);
+		    try {
+			this.rada.copy(x,q,deflate);
+		    }
+		    finally {
+			deflate.close();
+		    }
+		    compressed = deflate.compressed();
+		}
+		finally {
+		    channel.close();
+		}
+		time = (System.nanoTime()-time);
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test deflate error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+	    /*
+	     * Verify by inflating the block from its header length.
+	     */
+	    RandomAccessData check = new RandomAccessData(pc,Endian.BE);
+	    check.read(file);
+
+	    int length = check.sint32(0);
+
+	    RandomAccessInflate inflate = new RandomAccessInflate(check,4,length,false);
+
+	    boolean verified = (length == compressed && inflate.available() == q &&
+				Arrays.equals(inflate.copy(0,q),this.rada.copy(x,q)));
+	    /*
+	     * Verify the same block written to a buffer.
+	     */
+	    RandomAccessData block = new RandomAccessData(pc,Endian.BE);
+	    try {
+		BufferOutput buffer = new BufferOutput(block);
+
+		buffer.write(new byte[4],0,4);
+
+		DeflateOutput deflate = new DeflateOutput(buffer,level,false,0L,4,Endian.BE,0L);
+		try {
+		    this.rada.copy(x,q,deflate);
+		}
+		finally {
+		    deflate.close();
+		}
+		verified = (verified && deflate.offset() == q && buffer.offset() == check.length() &&
+			    Arrays.equals(block.copy(0,block.length()),check.copy(0,check.length())));
+	    }
+	    catch (IOException exc){
+
+		out.printf("%s test deflate error: %s.%n",i,exc.getMessage());
+		return false;
+	    }
+
+	    out.printf("%s test deflate file: %s, level: %d, inflated: %d, compressed: %d, verified: %b, time: %d us.%n",
+		       i, file.getPath(), level, q, compressed, verified, (time/1000L));
+
+	    return verified;
+	}
+	else {
+	    out.printf("%s test deflate missing rabu.%n",i);
+	    return false;
+	}
+    }
+    protected boolean load(Instruction i, String arg, int depth, int segment){
+	File file = new File(arg);
+	if (file.isFile() && file.canRead()){
+
+	    this.file = file;
+
+	    if (null == this.rada){
+
+		this.rada = new RandomAccessData(pc);
+	    }
+	    long time = System.nanoTime();
+	    try {
+		this.read = this.rada.load(file.toPath(),depth,segment).join();
+
+		time = (System.nanoTime()-time);
+
+		out.printf("%s test load file: %s, read: %d, time: %d us.%n",i,file.getPath(),this.read,(time/1000L));
+
+		return (0 < this.read);
+	    }
+	    catch (CompletionException exc){
+
+		out.printf("%s test load error: %s.%n",i,exc.getCause());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test load file not found.%n",i);
+	    return false;
+	}
+    }
+    protected boolean store(Instruction i, String arg, int depth, int segment){
+	if (null != this.rada){
+	    File file = new File(arg);
+	    long time = System.nanoTime();
+	    try {
+		this.wrote = this.rada.store(file.toPath(),depth,segment).join();
+
+		time = (System.nanoTime()-time);
+
+		out.printf("%s test store file: %s, wrote: %d, time: %d us.%n",i,file.getPath(),this.wrote,(time/1000L));
+
+		return true;
+	    }
+	    catch (CompletionException exc){
+
+		out.printf("%s test store error: %s.%n",i,exc.getCause());
+		return false;
+	    }
+	}
+	else {
+	    out.printf("%s test store missing rabu.%n",i);
+	    return false;
+	}
+    }
+    /**
+     * Touch each component of the tree, leaves first.
+     * 
+     * @return Count of dirty components
+     */
+    private static int touch(Component c){
+	int total = 0;
+	if (c instanceof Branch){
+	    Branch b = (Branch)c;
+	    for (int cc = 0, count = b.count(); cc < count; cc++){
+		total += touch(b.child(cc));
+	    }
+	}
+	c.touch();
+	return (c.dirty())?(total+1):(total);
+    }
+    /**
+     * @return Count of dirty components, including the argument
+     */
+    private static int dirty(Component c){
+	int total = (c.dirty())?(1):(0);
+	if (c instanceof Branch){
+	    Branch b = (Branch)c;
+	    for (int cc = 0, count = b.count(); cc < count; cc++){
+		total += dirty(b.child(cc));
+	    }
+	}
+	return total;
+    }
+    /**
+     * @return Count of blocks retaining their source, including the
+     * argument
+     */
+    private static int copied(Block c){
+	int total = (null != c.source)?(1):(0);
+	if (c instanceof Branch){
+	    Branch b = (Branch)c;
+	    for (int cc = 0, count = b.count(); cc < count; cc++){
+		Component k = b.child(cc);
+		if (k instanceof Block){
+		    total += copied((Block)k);
+		}
+	    }
+	}
+	return total;
+    }
+    /**
+     * @return Count of chunks failing trailer verification
+     */
+    private static int verify(Branch b){
+	int failed = 0;
+	for (int cc = 0, count = b.count(); cc < count; cc++){
+	    Component c = b.child(cc);
+	    if (c instanceof Chunk && !((Chunk)c).verify()){
+		failed += 1;
+	    }
+	    if (c instanceof Branch){
+		failed += verify((Branch)c);
+	    }
+	}
+	return failed;
+    }
+    private static int chunks(Branch b){
+	int count = b.count();
+	int total = count;
+	for (int cc = 0; cc < count; cc++){
+	    Component c = b.child(cc);
+	    if (c instanceof Branch){
+		total += chunks((Branch)c);
+	    }
+	}
+	return total;
+    }
 }
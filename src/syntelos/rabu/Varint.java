@@ -0,0 +1,569 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Variable length integer cursor over a region of a {@link
+ * RandomAccessBuffer rabu}.
+ * 
+ * <pre>
+ * uleb128  Unsigned LEB128, as protobuf varint and DWARF ULEB128
+ * sleb128  Signed LEB128, as DWARF SLEB128
+ * zigzag   Zigzag signed over unsigned LEB128, as protobuf sint64
+ * prefix   Prefix varint, having its length (1 to 9 bytes) as one
+ *          more than the count of trailing zero bits in its first
+ *          byte, so that a zero first byte is followed by eight
+ *          bytes
+ * </pre>
+ * 
+ * Each decode makes one bounds check over the remainder of the
+ * region.  LEB128 is decoded from one eight byte word load, finding
+ * the terminal byte by mask and compacting the seven bit groups in
+ * three steps, falling back to bytewise decoding for longer values
+ * and at the region tail.
+ * 
+ * Encoding writes in place, without growth.
+ */
+public class Varint
+    extends Object
+{
+    /**
+     * Encoding
+     */
+    public enum Format {
+	ULEB128,
+	SLEB128,
+	ZIGZAG,
+	PREFIX;
+
+	/**
+	 * @return Index following encoding
+	 */
+	public int encode(long v, byte[] m, int i){
+	    switch(this){
+	    case ULEB128:
+		return uleb128(v,m,i);
+	    case SLEB128:
+		return sleb128(v,m,i);
+	    case ZIGZAG:
+		return uleb128(((v << 1)^(v >> 63)),m,i);
+	    case PREFIX:
+		return prefix(v,m,i);
+	    default:
+		throw new InternalError(this.name());
+	    }
+	}
+    }
+
+    private final static VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+
+    private final static long CONTINUE = 0x8080808080808080L;
+
+
+    public final RandomAccessBuffer source;
+    /**
+     * External region from (inclusive) to (exclusive)
+     */
+    public final int from, to;
+    /**
+     * External offset of cursor
+     */
+    private int next;
+    /**
+     * Decoder index into array
+     */
+    private int index;
+    /**
+     * External offset less array index
+     */
+    private int base;
+
+    private final byte[] scratch = new byte[10];
+
+
+    /**
+     * @param r Source buffer
+     * @param x External offset of region
+     * @param q Length of region
+     */
+    public Varint(RandomAccessBuffer r, int x, int q){
+	super();
+	if (null != r && -1 < x && -1 < q){
+	    this.source = r;
+	    this.from = x;
+	    this.to = (x+q);
+	    this.next = x;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",x,q));
+	}
+    }
+    /**
+     * From I/O pointer.
+     */
+    public Varint(RandomAccessBuffer r){
+	this(r,r.offset(),r.available());
+    }
+
+
+    /**
+     * @return External offset of cursor
+     */
+    public int offset(){
+
+	return this.next;
+    }
+    /**
+     * @return Count of bytes remaining in region
+     */
+    public int available(){
+
+	return (this.to-this.next);
+    }
+    /**
+     * @param x External offset within region
+     */
+    public void seek(int x){
+
+	if (this.from <= x && x <= this.to){
+
+	    this.next = x;
+	}
+	else {
+	    throw new IllegalArgumentException(String.valueOf(x));
+	}
+    }
+
+    public long uleb128(){
+
+	byte[] m = this.open();
+
+	long v = this.uleb(m,this.index+this.available());
+
+	this.close(m);
+	return v;
+    }
+    public long sleb128(){
+
+	byte[] m = this.open();
+
+	long v = this.sleb(m,this.index+this.available());
+
+	this.close(m);
+	return v;
+    }
+    public long zigzag(){
+
+	long u = this.uleb128();
+
+	return ((u >>> 1)^(-(u & 1L)));
+    }
+    public long prefix(){
+
+	byte[] m = this.open();
+
+	long v = this.prefix(m,this.index+this.available());
+
+	this.close(m);
+	return v;
+    }
+    /**
+     * Encode in place.
+     * 
+     * @return Count of bytes written
+     */
+    public int uleb128(long v){
+
+	return this.store(uleb128(v,this.scratch,0));
+    }
+    public int sleb128(long v){
+
+	return this.store(sleb128(v,this.scratch,0));
+    }
+    public int zigzag(long v){
+
+	return this.store(uleb128(((v << 1)^(v >> 63)),this.scratch,0));
+    }
+    public int prefix(long v){
+
+	return this.store(prefix(v,this.scratch,0));
+    }
+    /**
+     * Bulk decode.
+     * 
+     * @return Count decoded
+     */
+    public int read(Format f, long[] dst, int o, int n){
+
+	byte[] m = this.open(n);
+	int e = (this.index+this.available());
+	int z = (o+n);
+
+	switch(f){
+	case ULEB128:
+	    for (; o < z; o++){
+		dst[o] = this.uleb(m,e);
+	    }
+	    break;
+	case SLEB128:
+	    for (; o < z; o++){
+		dst[o] = this.sleb(m,e);
+	    }
+	    break;
+	case ZIGZAG:
+	    for (; o < z; o++){
+		long u = this.uleb(m,e);
+		dst[o] = ((u >>> 1)^(-(u & 1L)));
+	    }
+	    break;
+	case PREFIX:
+	    for (; o < z; o++){
+		dst[o] = this.prefix(m,e);
+	    }
+	    break;
+	default:
+	    throw new InternalError(f.name());
+	}
+	this.close(m);
+	return n;
+    }
+    /**
+     * Bulk encode in place.
+     * 
+     * @return Count of bytes written
+     */
+    public int write(Format f, long[] src, int o, int n){
+
+	byte[] m = new byte[10*Math.min(n,0x400)];
+	int c = 0;
+	while (0 < n){
+	    int k = Math.min(n,0x400);
+	    int q = 0;
+	    for (int z = (o+k); o < z; o++){
+
+		q = f.encode(src[o],m,q);
+	    }
+	    c += this.store(m,q);
+	    n -= k;
+	}
+	return c;
+    }
+    /**
+     * Stream encode.
+     * 
+     * @return Count of bytes written
+     */
+    public static int uleb128(long v, OutputStream out)
+	throws IOException
+    {
+	byte[] m = new byte[10];
+	int q = uleb128(v,m,0);
+	out.write(m,0,q);
+	return q;
+    }
+    public static int sleb128(long v, OutputStream out)
+	throws IOException
+    {
+	byte[] m = new byte[10];
+	int q = sleb128(v,m,0);
+	out.write(m,0,q);
+	return q;
+    }
+    public static int zigzag(long v, OutputStream out)
+	throws IOException
+    {
+	return uleb128(((v << 1)^(v >> 63)),out);
+    }
+    public static int prefix(long v, OutputStream out)
+	throws IOException
+    {
+	byte[] m = new byte[10];
+	int q = prefix(v,m,0);
+	out.write(m,0,q);
+	return q;
+    }
+    /**
+     * @return Index following encoding
+     */
+    public static int uleb128(long v, byte[] m, int i){
+
+	while (0L != (v & ~0x7FL)){
+
+	    m[i++] = (byte)((v & 0x7F)|0x80);
+	    v >>>= 7;
+	}
+	m[i++] = (byte)v;
+	return i;
+    }
+    public static int sleb128(long v, byte[] m, int i){
+
+	while (true){
+	    int b = (int)(v & 0x7F);
+	    v >>= 7;
+	    if ((0L == v && 0 == (b & 0x40))||(-1L == v && 0 != (b & 0x40))){
+
+		m[i++] = (byte)b;
+		return i;
+	    }
+	    else {
+		m[i++] = (byte)(b|0x80);
+	    }
+	}
+    }
+    public static int prefix(long v, byte[] m, int i){
+
+	int bits = (64-Long.numberOfLeadingZeros(v|1L));
+	int q = ((bits+6)/7);
+
+	if (8 < q){
+
+	    m[i++] = 0;
+	    for (int c = 0; c < 8; c++){
+		m[i++] = (byte)(v >>> (c << 3));
+	    }
+	}
+	else {
+	    long w = ((v << q)|(1L << (q-1)));
+	    for (int c = 0; c < q; c++){
+		m[i++] = (byte)(w >>> (c << 3));
+	    }
+	}
+	return i;
+    }
+
+    /**
+     * Single bounds check over remainder of region.
+     * 
+     * @return Array having {@link #index} at cursor
+     */
+    private byte[] open(){
+
+	RandomAccessBuffer r = this.source;
+	int q = (this.to-this.next);
+
+	if (0 < q){
+
+	    int i = r.buffer.direct(r.window,r.state,this.next,q);
+	    if (-1 < i){
+
+		this.index = i;
+		this.base = (this.next-i);
+		return r.buffer.buffer;
+	    }
+	    else {
+		this.index = 0;
+		this.base = this.next;
+		return r.copy(this.next,Math.min(q,10));
+	    }
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.next,q));
+	}
+    }
+    /**
+     * Bulk bounds check, copying at most the maximum encoded length
+     * for a buffer without direct access.
+     */
+    private byte[] open(int n){
+
+	RandomAccessBuffer r = this.source;
+	int q = (this.to-this.next);
+
+	if (0 < q){
+
+	    int i = r.buffer.direct(r.window,r.state,this.next,q);
+	    if (-1 < i){
+
+		this.index = i;
+		this.base = (this.next-i);
+		return r.buffer.buffer;
+	    }
+	    else {
+		this.index = 0;
+		this.base = this.next;
+		return r.copy(this.next,(int)Math.min(q,(10L*n)));
+	    }
+	}
+	else if (0 == n){
+
+	    this.index = 0;
+	    this.base = this.next;
+	    return this.scratch;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.next,q));
+	}
+    }
+    /**
+     * Advance cursor over decoding from {@link #open()}.
+     */
+    private void close(byte[] m){
+
+	this.next = (this.base+this.index);
+    }
+    private int store(int q){
+
+	return this.store(this.scratch,q);
+    }
+    private int store(byte[] m, int q){
+
+	if (0 == q){
+	    return 0;
+	}
+	else if ((this.next+q) <= this.to && this.source.set(this.next,m,0,q)){
+
+	    this.next += q;
+
+	    return q;
+	}
+	else {
+	    throw new IllegalArgumentException(String.format("offset: %d, length: %d",this.next,q));
+	}
+    }
+    /**
+     * Compact seven bit groups of the low order bytes of a little
+     * endian word.
+     * 
+     * @param q Count of bytes from one to eight
+     */
+    private static long compact(long w, int q){
+
+	long x = (w & 0x7F7F7F7F7F7F7F7FL);
+	if (8 > q){
+	    x &= ((1L << (q << 3))-1L);
+	}
+	x = ((x & 0x7F007F007F007F00L) >>> 1)|(x & 0x007F007F007F007FL);
+	x = ((x & 0x3FFF00003FFF0000L) >>> 2)|(x & 0x00003FFF00003FFFL);
+	x = ((x & 0x0FFFFFFF00000000L) >>> 4)|(x & 0x000000000FFFFFFFL);
+	return x;
+    }
+    private long uleb(byte[] m, int e){
+
+	int i = this.index;
+
+	if ((i+8) <= e){
+
+	    long w = (long)LONG.get(m,i);
+	    long c = (~w & CONTINUE);
+	    if (0L != c){
+
+		int q = ((Long.numberOfTrailingZeros(c) >>> 3)+1);
+
+		this.index = (i+q);
+
+		return compact(w,q);
+	    }
+	}
+	long v = 0L;
+	for (int shift = 0; i < e && 64 > shift; shift += 7){
+
+	    int b = m[i++];
+
+	    v |= ((long)(b & 0x7F) << shift);
+
+	    if (-1 < b){
+
+		this.index = i;
+		return v;
+	    }
+	}
+	throw new IllegalArgumentException(String.format("varint at %d",this.next));
+    }
+    private long sleb(byte[] m, int e){
+
+	int i = this.index;
+
+	if ((i+8) <= e){
+
+	    long w = (long)LONG.get(m,i);
+	    long c = (~w & CONTINUE);
+	    if (0L != c){
+
+		int q = ((Long.numberOfTrailingZeros(c) >>> 3)+1);
+		int s = (64-(7*q));
+
+		this.index = (i+q);
+
+		return ((compact(w,q) << s) >> s);
+	    }
+	}
+	long v = 0L;
+	for (int shift = 0; i < e && 64 > shift; ){
+
+	    int b = m[i++];
+
+	    v |= ((long)(b & 0x7F) << shift);
+
+	    shift += 7;
+
+	    if (-1 < b){
+
+		if (64 > shift && 0 != (b & 0x40)){
+
+		    v |= (-1L << shift);
+		}
+		this.index = i;
+		return v;
+	    }
+	}
+	throw new IllegalArgumentException(String.format("varint at %d",this.next));
+    }
+    private long prefix(byte[] m, int e){
+
+	int i = this.index;
+
+	if (i < e){
+
+	    int n = Integer.numberOfTrailingZeros((m[i] & 0xFF)|0x100);
+	    int q = (n+1);
+
+	    if (8 == n && (i+9) <= e){
+
+		this.index = (i+9);
+
+		return (long)LONG.get(m,i+1);
+	    }
+	    else if (8 > n && (i+q) <= e){
+
+		long w;
+		if ((i+8) <= e){
+		    w = (long)LONG.get(m,i);
+		    if (8 > q){
+			w &= ((1L << (q << 3))-1L);
+		    }
+		}
+		else {
+		    w = 0L;
+		    for (int c = 0; c < q; c++){
+			w |= ((m[i+c] & 0xFFL) << (c << 3));
+		    }
+		}
+		this.index = (i+q);
+
+		return (w >>> q);
+	    }
+	}
+	throw new IllegalArgumentException(String.format("varint at %d",this.next));
+    }
+}
@@ -30,6 +30,22 @@ package syntelos.rabu;
 public class Window
     extends Object
 {
+    /**
+     * Admission of a write past the aperture ceiling.
+     * 
+     * @see #write(int,int)
+     */
+    public enum Policy {
+	/**
+	 * Write fails.
+	 */
+	REJECT,
+	/**
+	 * Aperture ceiling extends to the end of the write.
+	 */
+	EXTEND;
+    }
+
     /**
      * Aperture floor as index (from zero) relative to buffer origin.
      */
@@ -38,6 +54,10 @@ public class Window
      * Aperture ceiling as count from {@link #delta}.
      */
     public int length;
+    /**
+     * Write past aperture ceiling
+     */
+    public Policy policy = Policy.REJECT;
 
 
     protected Window(){
@@ -55,6 +75,15 @@ public class Window
 	    throw new IllegalArgumentException(String.format("ofs %d, len %d",ofs,len));
 	}
     }
+    public Window(int ofs, int len, Policy p){
+	this(ofs,len);
+	if (null != p){
+	    this.policy = p;
+	}
+	else {
+	    throw new IllegalArgumentException();
+	}
+    }
 
 
     public int internal(State s){
@@ -91,7 +120,7 @@ public class Window
 
 	if (0 <= this.delta && 0 < this.length){
 
-	    return (this.delta <= i && i < this.length);
+	    return (this.delta <= i && i < (this.delta+this.length));
 	}
 	else {
 	    return true;
@@ -101,7 +130,37 @@ public class Window
 
 	if (0 <= this.delta && 0 < this.length){
 
-	    return (this.delta <= i && (i+q) <= this.length);
+	    return (this.delta <= i && (i+q) <= (this.delta+this.length));
+	}
+	else {
+	    return true;
+	}
+    }
+    /**
+     * Admit a write over internal region {@code [i,i+q)}, which is
+     * within the aperture, or extends it by {@link Policy policy}.
+     * A write below the aperture floor is never admitted.
+     */
+    public boolean write(int i, int q){
+
+	if (0 <= this.delta && 0 < this.length){
+
+	    if (this.delta <= i){
+
+		int z = (i+q);
+
+		if (z <= (this.delta+this.length)){
+
+		    return true;
+		}
+		else if (Policy.EXTEND == this.policy){
+
+		    this.length = (z-this.delta);
+
+		    return true;
+		}
+	    }
+	    return false;
 	}
 	else {
 	    return true;
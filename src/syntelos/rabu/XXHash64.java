@@ -0,0 +1,187 @@
+/*
+ * RandomAccessBuffer
+ * Copyright (C) 2018, John Pritchard, Syntelos
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ */
+package syntelos.rabu;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * Streaming XXH64, a fast non-cryptographic 64 bit hash.
+ * 
+ * Input is consumed in stripes of thirty two octets, loaded as
+ * little endian words.
+ */
+public final class XXHash64
+    extends Object
+    implements Checksum
+{
+    private final static long P1 = 0x9E3779B185EBCA87L;
+    private final static long P2 = 0xC2B2AE3D27D4EB4FL;
+    private final static long P3 = 0x165667B19E3779F9L;
+    private final static long P4 = 0x85EBCA77C2B2AE63L;
+    private final static long P5 = 0x27D4EB2F165667C5L;
+
+    private final static VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+    private final static VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class,ByteOrder.LITTLE_ENDIAN);
+
+
+    public final long seed;
+
+    private long v1, v2, v3, v4, total;
+
+    private final byte[] stripe = new byte[32];
+
+    private int fill;
+
+
+    public XXHash64(){
+	this(0L);
+    }
+    public XXHash64(long seed){
+	super();
+	this.seed = seed;
+	this.reset();
+    }
+
+
+    public void reset(){
+
+	this.v1 = (this.seed+P1+P2);
+	this.v2 = (this.seed+P2);
+	this.v3 = this.seed;
+	this.v4 = (this.seed-P1);
+	this.total = 0L;
+	this.fill = 0;
+    }
+    public void update(int b){
+
+	this.stripe[this.fill++] = (byte)b;
+	this.total += 1;
+
+	if (32 == this.fill){
+
+	    this.stripe(this.stripe,0);
+	    this.fill = 0;
+	}
+    }
+    public void update(byte[] b, int o, int l){
+
+	this.total += l;
+
+	if (0 < this.fill){
+
+	    int q = Math.min(l,(32-this.fill));
+
+	    System.arraycopy(b,o,this.stripe,this.fill,q);
+
+	    this.fill += q;
+	    o += q;
+	    l -= q;
+
+	    if (32 == this.fill){
+
+		this.stripe(this.stripe,0);
+		this.fill = 0;
+	    }
+	    else {
+		return;
+	    }
+	}
+
+	int z = (o+l);
+
+	for (; (o+32) <= z; o += 32){
+
+	    this.stripe(b,o);
+	}
+
+	if (o < z){
+
+	    System.arraycopy(b,o,this.stripe,0,(z-o));
+
+	    this.fill = (z-o);
+	}
+    }
+    public long getValue(){
+
+	long h;
+
+	if (32 <= this.total){
+
+	    h = (Long.rotateLeft(v1,1)+Long.rotateLeft(v2,7)+Long.rotateLeft(v3,12)+Long.rotateLeft(v4,18));
+	    h = merge(h,v1);
+	    h = merge(h,v2);
+	    h = merge(h,v3);
+	    h = merge(h,v4);
+	}
+	else {
+	    h = (this.seed+P5);
+	}
+
+	h += this.total;
+
+	byte[] m = this.stripe;
+	int i = 0, z = this.fill;
+
+	for (; (i+8) <= z; i += 8){
+
+	    h ^= round(0L,(long)LONG.get(m,i));
+	    h = ((Long.rotateLeft(h,27)*P1)+P4);
+	}
+	if ((i+4) <= z){
+
+	    h ^= (((int)INT.get(m,i) & 0xFFFFFFFFL)*P1);
+	    h = ((Long.rotateLeft(h,23)*P2)+P3);
+	    i += 4;
+	}
+	for (; i < z; i++){
+
+	    h ^= ((m[i] & 0xFFL)*P5);
+	    h = (Long.rotateLeft(h,11)*P1);
+	}
+
+	h ^= (h >>> 33);
+	h *= P2;
+	h ^= (h >>> 29);
+	h *= P3;
+	h ^= (h >>> 32);
+
+	return h;
+    }
+
+    private void stripe(byte[] m, int o){
+
+	this.v1 = round(this.v1,(long)LONG.get(m,o));
+	this.v2 = round(this.v2,(long)LONG.get(m,o+8));
+	this.v3 = round(this.v3,(long)LONG.get(m,o+16));
+	this.v4 = round(this.v4,(long)LONG.get(m,o+24));
+    }
+    private static long round(long acc, long in){
+
+	acc += (in*P2);
+	acc = Long.rotateLeft(acc,31);
+	return (acc*P1);
+    }
+    private static long merge(long acc, long v){
+
+	acc ^= round(0L,v);
+	return ((acc*P1)+P4);
+    }
+}